@@ -2,3 +2,16 @@
 plugins {
     id("com.gtnewhorizons.gtnhconvention")
 }
+
+// Mouse API (座標・ボタン・イベント) の呼び出し元をmodsディレクトリのjarから事前に索引化する
+// 例: ./gradlew indexMouseCalls -PmodsDir=/path/to/.minecraft/mods -PindexOutput=/path/to/.minecraft/config/controllermod_mouse_index.txt
+tasks.register<JavaExec>("indexMouseCalls") {
+    group = "controllermod"
+    description = "Indexes classes in mod jars that call org.lwjgl.input.Mouse for the coremod transformer"
+    dependsOn("classes")
+    classpath = project.the<SourceSetContainer>()["main"].runtimeClasspath
+    mainClass.set("com.github.yuu1111.controllermod.asm.MouseCallIndexer")
+    val modsDir = providers.gradleProperty("modsDir").orElse("run/client/mods")
+    val output = providers.gradleProperty("indexOutput").orElse("run/client/config/controllermod_mouse_index.txt")
+    args(file(output.get()).absolutePath, file(modsDir.get()).absolutePath)
+}
@@ -1,14 +1,20 @@
 package com.github.yuu1111.controllermod;
 
+import java.io.File;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.github.yuu1111.controllermod.asm.CoremodConfig;
+import com.github.yuu1111.controllermod.asm.MouseCallTransformer;
+import com.github.yuu1111.controllermod.asm.TransformerStats;
 import com.github.yuu1111.controllermod.constants.Reference;
 import com.github.yuu1111.controllermod.proxy.CommonProxy;
 
 import cpw.mods.fml.common.Mod;
 import cpw.mods.fml.common.SidedProxy;
 import cpw.mods.fml.common.event.FMLInitializationEvent;
+import cpw.mods.fml.common.event.FMLLoadCompleteEvent;
 import cpw.mods.fml.common.event.FMLPostInitializationEvent;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
 
@@ -44,4 +50,26 @@ public class ControllerMod {
         LOG.info("ControllerMod PostInit");
         proxy.postInit(event);
     }
+
+    @Mod.EventHandler
+    public void loadComplete(FMLLoadCompleteEvent event) {
+        if (!CoremodConfig.isMouseTransformerEnabled()) {
+            return;
+        }
+
+        // Coremodトランスフォーマーの統計 (起動時間への影響の確認用)
+        LOG.info(
+            "Mouse transformer: {} skipped by index, scanned {}, skipped {} by prescan, rewritten {} (prescan {} ms, rewrite {} ms)",
+            MouseCallTransformer.getIndexSkippedCount(),
+            MouseCallTransformer.getScannedCount(),
+            MouseCallTransformer.getSkippedCount(),
+            MouseCallTransformer.getRewrittenCount(),
+            MouseCallTransformer.getPrescanNanos() / 1_000_000,
+            MouseCallTransformer.getRewriteNanos() / 1_000_000);
+
+        File report = TransformerStats.writeReport();
+        if (report != null) {
+            LOG.info("Transformer report written to {}", report);
+        }
+    }
 }
@@ -0,0 +1,251 @@
+package com.github.yuu1111.controllermod.asm;
+
+/**
+ * クラスファイルのコンスタントプールを読み取る軽量パーサー
+ *
+ * <p>
+ * ClassReaderを使わずにコンスタントプールのエントリ位置だけを走査する。
+ * 命令のデコードや属性の解析は行わないため、大量のクラスを高速に判定できる。
+ *
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-4.html#jvms-4.4">JVMS 4.4</a>
+ */
+public final class ClassConstantPool {
+
+    // コンスタントプールのタグ
+    public static final int TAG_UTF8 = 1;
+    public static final int TAG_INTEGER = 3;
+    public static final int TAG_FLOAT = 4;
+    public static final int TAG_LONG = 5;
+    public static final int TAG_DOUBLE = 6;
+    public static final int TAG_CLASS = 7;
+    public static final int TAG_STRING = 8;
+    public static final int TAG_FIELDREF = 9;
+    public static final int TAG_METHODREF = 10;
+    public static final int TAG_INTERFACE_METHODREF = 11;
+    public static final int TAG_NAME_AND_TYPE = 12;
+    public static final int TAG_METHOD_HANDLE = 15;
+    public static final int TAG_METHOD_TYPE = 16;
+    public static final int TAG_DYNAMIC = 17;
+    public static final int TAG_INVOKE_DYNAMIC = 18;
+    public static final int TAG_MODULE = 19;
+    public static final int TAG_PACKAGE = 20;
+
+    /** クラスファイルのマジックナンバー */
+    private static final int MAGIC = 0xCAFEBABE;
+
+    /** constant_pool_count の位置 */
+    private static final int COUNT_OFFSET = 8;
+
+    /** クラスファイルのバイト列 */
+    private final byte[] bytes;
+
+    /** 各エントリのタグの位置 (インデックス0と8バイト定数の後半は0) */
+    private final int[] offsets;
+
+    /** コンスタントプール終端の位置 (access_flags の位置) */
+    private final int end;
+
+    private ClassConstantPool(byte[] bytes, int[] offsets, int end) {
+        this.bytes = bytes;
+        this.offsets = offsets;
+        this.end = end;
+    }
+
+    /**
+     * コンスタントプールを解析する
+     *
+     * @param bytes クラスファイルのバイト列
+     * @return 解析結果
+     * @throws IllegalArgumentException クラスファイルとして不正な場合
+     */
+    public static ClassConstantPool parse(byte[] bytes) {
+        if (bytes.length < COUNT_OFFSET + 2 || readInt(bytes, 0) != MAGIC) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+
+        int count = readU2(bytes, COUNT_OFFSET);
+        int[] offsets = new int[count];
+        int pos = COUNT_OFFSET + 2;
+
+        for (int i = 1; i < count; i++) {
+            if (pos >= bytes.length) {
+                throw new IllegalArgumentException("Truncated constant pool");
+            }
+            offsets[i] = pos;
+            int tag = bytes[pos] & 0xFF;
+            switch (tag) {
+                case TAG_UTF8:
+                    pos += 3 + readU2(bytes, pos + 1);
+                    break;
+                case TAG_INTEGER:
+                case TAG_FLOAT:
+                case TAG_FIELDREF:
+                case TAG_METHODREF:
+                case TAG_INTERFACE_METHODREF:
+                case TAG_NAME_AND_TYPE:
+                case TAG_DYNAMIC:
+                case TAG_INVOKE_DYNAMIC:
+                    pos += 5;
+                    break;
+                case TAG_LONG:
+                case TAG_DOUBLE:
+                    // 8バイト定数は2スロットを占有する
+                    pos += 9;
+                    i++;
+                    break;
+                case TAG_CLASS:
+                case TAG_STRING:
+                case TAG_METHOD_TYPE:
+                case TAG_MODULE:
+                case TAG_PACKAGE:
+                    pos += 3;
+                    break;
+                case TAG_METHOD_HANDLE:
+                    pos += 4;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag + " at " + pos);
+            }
+        }
+
+        if (pos > bytes.length) {
+            throw new IllegalArgumentException("Truncated constant pool");
+        }
+        return new ClassConstantPool(bytes, offsets, pos);
+    }
+
+    /**
+     * エントリ数を取得する (constant_pool_count)
+     *
+     * @return constant_pool_count の値
+     */
+    public int getCount() {
+        return offsets.length;
+    }
+
+    /**
+     * コンスタントプール終端の位置を取得する
+     *
+     * @return access_flags の位置
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * エントリのタグを取得する
+     *
+     * @param index エントリのインデックス
+     * @return タグ (無効なインデックスの場合は0)
+     */
+    public int getTag(int index) {
+        if (index <= 0 || index >= offsets.length || offsets[index] == 0) {
+            return 0;
+        }
+        return bytes[offsets[index]] & 0xFF;
+    }
+
+    /**
+     * エントリのタグの位置を取得する
+     *
+     * @param index エントリのインデックス
+     * @return バイト列内の位置
+     */
+    public int getOffset(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * エントリ内の u2 値を読み取る
+     *
+     * @param index  エントリのインデックス
+     * @param field  タグの直後からのバイトオフセット
+     * @return u2 値
+     */
+    public int readEntryU2(int index, int field) {
+        return readU2(bytes, offsets[index] + 1 + field);
+    }
+
+    /**
+     * Utf8エントリが指定の文字列と一致するかを判定する
+     *
+     * <p>
+     * 比較対象はASCII文字列のみを想定している
+     *
+     * @param index Utf8エントリのインデックス
+     * @param value 比較する文字列
+     * @return 一致する場合は {@code true}
+     */
+    public boolean utf8Equals(int index, String value) {
+        if (getTag(index) != TAG_UTF8) {
+            return false;
+        }
+        int pos = offsets[index];
+        int length = readU2(bytes, pos + 1);
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[pos + 3 + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Classエントリが指定の内部名を指しているかを判定する
+     *
+     * @param index        Classエントリのインデックス
+     * @param internalName クラスの内部名 (例: org/lwjgl/input/Mouse)
+     * @return 一致する場合は {@code true}
+     */
+    public boolean classNameEquals(int index, String internalName) {
+        return getTag(index) == TAG_CLASS && utf8Equals(readEntryU2(index, 0), internalName);
+    }
+
+    /**
+     * Methodrefエントリが指定のメソッドを指しているかを判定する
+     *
+     * @param index Methodrefエントリのインデックス
+     * @param owner 所有クラスの内部名
+     * @param name  メソッド名
+     * @param desc  メソッドディスクリプタ
+     * @return 一致する場合は {@code true}
+     */
+    public boolean methodrefEquals(int index, String owner, String name, String desc) {
+        if (getTag(index) != TAG_METHODREF || !classNameEquals(readEntryU2(index, 0), owner)) {
+            return false;
+        }
+        return nameAndTypeEquals(readEntryU2(index, 2), name, desc);
+    }
+
+    /**
+     * NameAndTypeエントリが指定の名前とディスクリプタを指しているかを判定する
+     *
+     * @param index NameAndTypeエントリのインデックス
+     * @param name  メンバー名
+     * @param desc  ディスクリプタ
+     * @return 一致する場合は {@code true}
+     */
+    public boolean nameAndTypeEquals(int index, String name, String desc) {
+        return getTag(index) == TAG_NAME_AND_TYPE && utf8Equals(readEntryU2(index, 0), name)
+            && utf8Equals(readEntryU2(index, 2), desc);
+    }
+
+    /**
+     * u2 値を読み取る
+     */
+    static int readU2(byte[] bytes, int pos) {
+        return ((bytes[pos] & 0xFF) << 8) | (bytes[pos + 1] & 0xFF);
+    }
+
+    /**
+     * u4 値を読み取る
+     */
+    private static int readInt(byte[] bytes, int pos) {
+        return ((bytes[pos] & 0xFF) << 24) | ((bytes[pos + 1] & 0xFF) << 16)
+            | ((bytes[pos + 2] & 0xFF) << 8)
+            | (bytes[pos + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.yuu1111.controllermod.asm;
+
+/**
+ * コンスタントプールを直接書き換えてMethodrefの所有クラスを付け替える
+ *
+ * <p>
+ * 置換先のメソッドが同名・同ディスクリプタのstaticメソッドであれば、
+ * Methodrefの class_index を置換先のClassエントリに向けるだけで呼び出し先を変更できる。
+ * 命令のデコードやスタックマップの再計算は不要で、コストは配列のコピー1回のみ。
+ *
+ * <p>
+ * 置換先のClassエントリ (と必要ならUtf8エントリ) はコンスタントプールの末尾に追加する。
+ * 既存エントリのインデックスは変わらないため、命令やスタックマップはそのまま有効。
+ */
+public final class ConstantPoolPatcher {
+
+    /** constant_pool_count の位置 */
+    private static final int COUNT_OFFSET = 8;
+
+    /** constant_pool_count の上限 */
+    private static final int MAX_COUNT = 0xFFFF;
+
+    private ConstantPoolPatcher() {
+        // ユーティリティクラス
+    }
+
+    /**
+     * 指定したMethodrefの所有クラスを付け替える
+     *
+     * @param pool       解析済みのコンスタントプール
+     * @param bytes      クラスファイルのバイト列 ({@code pool} の解析元)
+     * @param newOwner   付け替え先クラスの内部名 (ASCIIのみ)
+     * @param methodrefs 付け替えるMethodrefエントリのインデックス
+     * @return 書き換え後のバイト列 (コンスタントプールが満杯で追加できない場合は {@code null})
+     */
+    public static byte[] retargetMethodrefs(ClassConstantPool pool, byte[] bytes, String newOwner,
+        int[] methodrefs) {
+        int count = pool.getCount();
+
+        // 既存のClass/Utf8エントリがあれば再利用する
+        int classIndex = 0;
+        int utf8Index = 0;
+        for (int i = 1; i < count && classIndex == 0; i++) {
+            int tag = pool.getTag(i);
+            if (tag == ClassConstantPool.TAG_CLASS && pool.classNameEquals(i, newOwner)) {
+                classIndex = i;
+            } else if (tag == ClassConstantPool.TAG_UTF8 && utf8Index == 0 && pool.utf8Equals(i, newOwner)) {
+                utf8Index = i;
+            }
+        }
+
+        int added = 0;
+        int extraBytes = 0;
+        if (classIndex == 0) {
+            if (utf8Index == 0) {
+                added++;
+                extraBytes += 3 + newOwner.length();
+            }
+            added++;
+            extraBytes += 3;
+        }
+        if (count + added > MAX_COUNT) {
+            return null;
+        }
+
+        int end = pool.getEnd();
+        byte[] out = new byte[bytes.length + extraBytes];
+        System.arraycopy(bytes, 0, out, 0, end);
+        System.arraycopy(bytes, end, out, end + extraBytes, bytes.length - end);
+
+        if (classIndex == 0) {
+            int pos = end;
+            int nextIndex = count;
+            if (utf8Index == 0) {
+                utf8Index = nextIndex++;
+                out[pos++] = ClassConstantPool.TAG_UTF8;
+                pos = writeU2(out, pos, newOwner.length());
+                for (int i = 0; i < newOwner.length(); i++) {
+                    out[pos++] = (byte) newOwner.charAt(i);
+                }
+            }
+            classIndex = nextIndex++;
+            out[pos++] = ClassConstantPool.TAG_CLASS;
+            writeU2(out, pos, utf8Index);
+            writeU2(out, COUNT_OFFSET, nextIndex);
+        }
+
+        // Methodref の class_index を書き換える
+        for (int methodref : methodrefs) {
+            writeU2(out, pool.getOffset(methodref) + 1, classIndex);
+        }
+        return out;
+    }
+
+    /**
+     * u2 値を書き込む
+     *
+     * @return 書き込み後の位置
+     */
+    private static int writeU2(byte[] bytes, int pos, int value) {
+        bytes[pos] = (byte) (value >>> 8);
+        bytes[pos + 1] = (byte) value;
+        return pos + 2;
+    }
+}
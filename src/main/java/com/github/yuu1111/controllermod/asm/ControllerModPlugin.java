@@ -2,16 +2,21 @@ package com.github.yuu1111.controllermod.asm;
 
 import static com.github.yuu1111.controllermod.constants.Reference.MC_VERSION;
 
+import java.io.File;
 import java.util.Map;
 
+import com.github.yuu1111.controllermod.constants.Reference;
+
 import cpw.mods.fml.relauncher.IFMLLoadingPlugin;
 
 /**
  * ControllerMod用Coremodプラグイン
  *
  * <p>
- * Mouse.getX(), getY(), isButtonDown() の呼び出しを
- * VirtualCursorManagerのメソッドに置き換えるASMトランスフォーマーを登録する
+ * バニラのGUI・描画処理のMouse参照はMixin ({@code mixins} パッケージ) で置き換える。
+ * Mouse.getX(), getY(), isButtonDown() の呼び出しを全クラスで
+ * MouseHookのメソッドに置き換えるASMトランスフォーマーは、
+ * {@link CoremodConfig#isMouseTransformerEnabled()} が有効な場合のみ登録する
  */
 @IFMLLoadingPlugin.MCVersion(MC_VERSION)
 @IFMLLoadingPlugin.TransformerExclusions({ "com.github.yuu1111.controllermod.asm" })
@@ -20,6 +25,10 @@ public class ControllerModPlugin implements IFMLLoadingPlugin {
 
     @Override
     public String[] getASMTransformerClass() {
+        if (!CoremodConfig.isMouseTransformerEnabled()) {
+            return new String[0];
+        }
+        System.out.println("[ControllerMod ASM] Mouse transformer enabled");
         return new String[] { "com.github.yuu1111.controllermod.asm.MouseCallTransformer" };
     }
 
@@ -35,7 +44,20 @@ public class ControllerModPlugin implements IFMLLoadingPlugin {
 
     @Override
     public void injectData(Map<String, Object> data) {
-        // 特に必要なし
+        Object mcLocation = data.get("mcLocation");
+        if (!(mcLocation instanceof File) || !CoremodConfig.isMouseTransformerEnabled()) {
+            return;
+        }
+        File configDir = new File((File) mcLocation, "config");
+
+        // 計測レポートの出力先 (logsディレクトリ)
+        TransformerStats.init((File) mcLocation);
+
+        // 事前索引 (gradlew indexMouseCalls で作成) があれば読み込む
+        MouseCallTransformer.setIndex(
+            MouseCallIndex.loadIfCurrent(
+                new File(configDir, Reference.CONFIG_FILE_MOUSE_INDEX),
+                new File((File) mcLocation, "mods")));
     }
 
     @Override
@@ -0,0 +1,110 @@
+package com.github.yuu1111.controllermod.asm;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import net.minecraft.launchwrapper.Launch;
+
+import com.github.yuu1111.controllermod.constants.Reference;
+
+/**
+ * Coremodの設定
+ *
+ * <p>
+ * {@link ControllerModPlugin#getASMTransformerClass()} はMODの設定 (GTNHLib) が読み込まれるより前に
+ * 呼び出されるため、Coremod用の設定は独立したプロパティファイルに保存する。
+ * ファイルが無い場合は既定値で作成する。
+ *
+ * <p>
+ * 各項目はシステムプロパティ ({@code -Dcontrollermod.<キー>=...}) で上書きできる
+ */
+public final class CoremodConfig {
+
+    /** Mouse呼び出しを全クラスで置換するトランスフォーマーを有効にするかのキー */
+    private static final String KEY_MOUSE_TRANSFORMER = "mouseTransformer";
+
+    /** 読み込んだ設定 (null = 未読み込み) */
+    private static Properties properties;
+
+    private CoremodConfig() {
+        // ユーティリティクラス
+    }
+
+    /**
+     * Mouse呼び出しのトランスフォーマーが有効かどうかを返す
+     *
+     * <p>
+     * 既定では無効で、バニラのGUI・描画処理はMixinで対応する。
+     * {@code Mouse} を直接参照する他MODのGUIにもバーチャルカーソルを反映したい場合に有効にする。
+     *
+     * @return 有効な場合は {@code true}
+     */
+    public static boolean isMouseTransformerEnabled() {
+        return getBoolean(KEY_MOUSE_TRANSFORMER, false);
+    }
+
+    /**
+     * 真偽値の設定を取得する
+     *
+     * @param key          キー
+     * @param defaultValue 既定値
+     * @return 設定値
+     */
+    private static boolean getBoolean(String key, boolean defaultValue) {
+        String value = System.getProperty("controllermod." + key);
+        if (value == null) {
+            value = getProperties().getProperty(key);
+        }
+        return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+
+    /**
+     * 設定ファイルを読み込む (初回のみ)
+     */
+    private static synchronized Properties getProperties() {
+        if (properties != null) {
+            return properties;
+        }
+
+        properties = new Properties();
+        File home = Launch.minecraftHome != null ? Launch.minecraftHome : new File(".");
+        File file = new File(new File(home, "config"), Reference.CONFIG_FILE_COREMOD);
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                properties.load(in);
+            } catch (IOException e) {
+                System.err.println("[ControllerMod ASM] Failed to load " + file + ": " + e.getMessage());
+            }
+        } else {
+            writeDefaults(file);
+        }
+        return properties;
+    }
+
+    /**
+     * 既定値の設定ファイルを作成する
+     */
+    private static void writeDefaults(File file) {
+        Properties defaults = new Properties();
+        defaults.setProperty(KEY_MOUSE_TRANSFORMER, "false");
+
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            return;
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            defaults.store(
+                out,
+                "ControllerMod coremod settings (read before mods are loaded, restart required)\n"
+                    + "mouseTransformer: rewrite org.lwjgl.input.Mouse position, button and event calls in every loaded class.\n"
+                    + "Enable only for mods whose GUIs poll org.lwjgl.input.Mouse directly.");
+        } catch (IOException e) {
+            System.err.println("[ControllerMod ASM] Failed to write " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.github.yuu1111.controllermod.asm;
+
+import static com.github.yuu1111.controllermod.constants.Reference.MC_VERSION;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * MODのjarから事前に作成したMouse呼び出し元クラスの索引
+ *
+ * <p>
+ * {@link MouseCallIndexer} がオフラインで作成し、Coremodの {@code injectData} で読み込まれる。
+ * 索引が有効な間、索引済みのクラスはバイトコードを見ずに
+ * 所属判定だけで変換対象かどうかを決められる。
+ *
+ * <p>
+ * 呼び出しを含むクラスは少ないためクラス名のまま持つ。
+ * 含まないクラスはMODのjarのほぼ全てのクラスになるため、クラス名の64ビットハッシュ ({@link #hash(String)}) を
+ * 昇順に並べた {@code long[]} として持ち、二分探索で判定する。ハッシュが衝突した索引外のクラスは
+ * 変換対象外と判定されるが、64ビットでは数十万クラスでも無視できる確率になる。
+ *
+ * <p>
+ * 判定できるのは索引作成時に走査したクラスと同じ名前のクラスのみで、
+ * それ以外のクラス (同じパッケージでも別のjar・ライブラリ・jar内のjar・実行時に生成されるクラスなど) は
+ * {@link #UNKNOWN} としてプリスキャンする。
+ *
+ * <p>
+ * 以下の場合は索引全体を使用しない (プリスキャンにフォールバックする):
+ * <ul>
+ * <li>modsディレクトリのjarが追加・削除・更新された場合</li>
+ * <li>索引作成時と {@link MouseCallTransformer#TRANSFORMER_VERSION} が異なる場合</li>
+ * </ul>
+ *
+ * <p>
+ * ファイル形式 (1行1レコードのテキスト):
+ *
+ * <pre>
+ * version &lt;トランスフォーマーのバージョン&gt;
+ * jar &lt;modsからの相対パス&gt; &lt;サイズ&gt; &lt;更新日時&gt;
+ * class &lt;置換対象の呼び出しを含むクラス名&gt;
+ * clean-hashes &lt;件数&gt; &lt;含まないクラス名のハッシュ (昇順、ビッグエンディアンの64ビット整数の並びをBase64)&gt;
+ * </pre>
+ */
+public final class MouseCallIndex {
+
+    /** 照会結果: 索引の対象外 (プリスキャンが必要) */
+    public static final int UNKNOWN = 0;
+
+    /** 照会結果: 置換対象の呼び出しを含む */
+    public static final int PRESENT = 1;
+
+    /** 照会結果: 置換対象の呼び出しを含まない */
+    public static final int ABSENT = 2;
+
+    /** 索引作成時のトランスフォーマーのバージョン */
+    private int transformerVersion = MouseCallTransformer.TRANSFORMER_VERSION;
+
+    /** 索引作成時のjar (相対パス → "サイズ 更新日時") */
+    private final Map<String, String> jars = new LinkedHashMap<>();
+
+    /** 置換対象の呼び出しを含まないクラス名のハッシュ (読み込み後は昇順で重複なし) */
+    private long[] cleanHashes = new long[0];
+
+    /** {@link #cleanHashes} の有効な要素数 */
+    private int cleanCount = 0;
+
+    /** 置換対象の呼び出しを含むクラス (ドット区切り) */
+    private final Set<String> classes = new HashSet<>();
+
+    /**
+     * クラスが変換対象かどうかを照会する
+     *
+     * @param className クラス名 (ドット区切り)
+     * @return {@link #PRESENT}, {@link #ABSENT}, {@link #UNKNOWN} のいずれか
+     */
+    public int lookup(String className) {
+        // 同じ名前のクラスが複数のjarにある場合は、いずれかが呼び出しを含めば変換対象とする
+        if (classes.contains(className)) {
+            return PRESENT;
+        }
+        return Arrays.binarySearch(cleanHashes, 0, cleanCount, hash(className)) >= 0 ? ABSENT : UNKNOWN;
+    }
+
+    /**
+     * クラス名の64ビットハッシュ (FNV-1a) を計算する
+     *
+     * @param className クラス名 (ドット区切り)
+     * @return ハッシュ
+     */
+    static long hash(String className) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < className.length(); i++) {
+            h ^= className.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * jarを索引に登録する
+     *
+     * @param relativePath modsディレクトリからの相対パス
+     * @param jar          jarファイル
+     */
+    void addJar(String relativePath, File jar) {
+        jars.put(relativePath, fingerprint(jar));
+    }
+
+    /**
+     * 置換対象の呼び出しを含まないクラスを登録する
+     *
+     * @param className クラス名 (ドット区切り)
+     */
+    void addCleanClass(String className) {
+        if (cleanCount == cleanHashes.length) {
+            cleanHashes = Arrays.copyOf(cleanHashes, Math.max(1024, cleanCount * 2));
+        }
+        cleanHashes[cleanCount++] = hash(className);
+    }
+
+    /**
+     * 含まないクラスのハッシュを昇順に並べて重複を除く
+     */
+    private void sortCleanHashes() {
+        Arrays.sort(cleanHashes, 0, cleanCount);
+        int unique = 0;
+        for (int i = 0; i < cleanCount; i++) {
+            if (unique == 0 || cleanHashes[i] != cleanHashes[unique - 1]) {
+                cleanHashes[unique++] = cleanHashes[i];
+            }
+        }
+        cleanCount = unique;
+    }
+
+    /**
+     * 置換対象の呼び出しを含むクラスを登録する
+     *
+     * @param className クラス名 (ドット区切り)
+     */
+    void addClass(String className) {
+        classes.add(className);
+    }
+
+    /**
+     * 置換対象の呼び出しを含むクラス数を取得する
+     *
+     * @return クラス数
+     */
+    public int getClassCount() {
+        return classes.size();
+    }
+
+    /**
+     * 索引済みのクラス数を取得する
+     *
+     * @return クラス数 (置換対象の呼び出しを含むクラスと含まないクラスの合計)
+     */
+    public int getIndexedClassCount() {
+        return classes.size() + cleanCount;
+    }
+
+    /**
+     * 索引が現在のmodsディレクトリとトランスフォーマーに対して有効かを判定する
+     *
+     * @param modsDir modsディレクトリ
+     * @return 有効でない理由 (有効な場合は {@code null})
+     */
+    public String checkUpToDate(File modsDir) {
+        if (transformerVersion != MouseCallTransformer.TRANSFORMER_VERSION) {
+            return "transformer version changed";
+        }
+
+        Map<String, File> current = listModJars(modsDir);
+        if (!current.keySet()
+            .equals(jars.keySet())) {
+            return "mod list changed";
+        }
+        for (Map.Entry<String, File> e : current.entrySet()) {
+            if (!fingerprint(e.getValue()).equals(jars.get(e.getKey()))) {
+                return e.getKey() + " changed";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 索引をファイルに書き出す
+     *
+     * @param file 出力先
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public void write(File file) throws IOException {
+        File parent = file.getAbsoluteFile()
+            .getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+
+        try (BufferedWriter out = new BufferedWriter(
+            new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8))) {
+            out.write("# ControllerMod Mouse call index (generated by MouseCallIndexer)\n");
+            out.write("version " + transformerVersion + "\n");
+            for (Map.Entry<String, String> e : jars.entrySet()) {
+                out.write("jar " + e.getKey() + " " + e.getValue() + "\n");
+            }
+            for (String className : new TreeSet<>(classes)) {
+                out.write("class " + className + "\n");
+            }
+            sortCleanHashes();
+            ByteBuffer buf = ByteBuffer.allocate(cleanCount * Long.BYTES);
+            buf.asLongBuffer()
+                .put(cleanHashes, 0, cleanCount);
+            out.write(
+                "clean-hashes " + cleanCount
+                    + " "
+                    + Base64.getEncoder()
+                        .encodeToString(buf.array())
+                    + "\n");
+        }
+    }
+
+    /**
+     * 索引をファイルから読み込む
+     *
+     * @param file 索引ファイル
+     * @return 読み込んだ索引
+     * @throws IOException 読み込みに失敗した場合
+     */
+    public static MouseCallIndex read(File file) throws IOException {
+        MouseCallIndex index = new MouseCallIndex();
+        try (BufferedReader in = new BufferedReader(
+            new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+                int space = line.indexOf(' ');
+                String key = space < 0 ? line : line.substring(0, space);
+                String value = space < 0 ? "" : line.substring(space + 1);
+                switch (key) {
+                    case "version":
+                        index.transformerVersion = Integer.parseInt(value);
+                        break;
+                    case "jar":
+                        // パスに空白を含む場合があるので、末尾の2フィールドをサイズと更新日時として扱う
+                        int mtime = value.lastIndexOf(' ');
+                        int size = value.lastIndexOf(' ', mtime - 1);
+                        if (size < 0) {
+                            throw new IOException("Malformed jar entry: " + line);
+                        }
+                        index.jars.put(value.substring(0, size), value.substring(size + 1));
+                        break;
+                    case "class":
+                        index.classes.add(value);
+                        break;
+                    case "clean-hashes":
+                        index.readCleanHashes(value);
+                        break;
+                    case "clean":
+                    case "package":
+                        // クラス名をそのまま並べていた形式と、パッケージ単位で判定していた形式
+                        throw new IOException("Outdated index format, regenerate with indexMouseCalls");
+                    default:
+                        throw new IOException("Unknown record: " + line);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // NumberFormatExceptionとBase64の不正な文字
+            throw new IOException("Malformed index " + file, e);
+        }
+        return index;
+    }
+
+    /**
+     * 含まないクラスのハッシュのレコードを読み込む
+     *
+     * @param value "件数 Base64"
+     * @throws IOException 件数が合わないか昇順でない場合
+     */
+    private void readCleanHashes(String value) throws IOException {
+        int space = value.indexOf(' ');
+        if (space < 0) {
+            throw new IOException("Malformed clean-hashes entry");
+        }
+        int count = Integer.parseInt(value.substring(0, space));
+        byte[] bytes = Base64.getDecoder()
+            .decode(value.substring(space + 1));
+        if (bytes.length != count * Long.BYTES) {
+            throw new IOException("clean-hashes count mismatch");
+        }
+        long[] hashes = new long[count];
+        ByteBuffer.wrap(bytes)
+            .asLongBuffer()
+            .get(hashes);
+        for (int i = 1; i < count; i++) {
+            if (hashes[i] <= hashes[i - 1]) {
+                throw new IOException("clean-hashes not sorted");
+            }
+        }
+        cleanHashes = hashes;
+        cleanCount = count;
+    }
+
+    /**
+     * 索引を読み込み、有効であれば返す
+     *
+     * <p>
+     * Coremodの {@code injectData} から呼び出される
+     *
+     * @param file    索引ファイル
+     * @param modsDir modsディレクトリ
+     * @return 有効な索引 (ファイルが無い・古い・壊れている場合は {@code null})
+     */
+    public static MouseCallIndex loadIfCurrent(File file, File modsDir) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            MouseCallIndex index = read(file);
+            String reason = index.checkUpToDate(modsDir);
+            if (reason != null) {
+                System.out.println("[ControllerMod ASM] Mouse call index is stale (" + reason + "), ignoring");
+                return null;
+            }
+            System.out.println(
+                "[ControllerMod ASM] Mouse call index loaded: " + index.getClassCount()
+                    + " of "
+                    + index.getIndexedClassCount()
+                    + " classes call Mouse");
+            return index;
+        } catch (IOException e) {
+            System.err.println("[ControllerMod ASM] Failed to load mouse call index: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * modsディレクトリのjarを列挙する
+     *
+     * <p>
+     * FMLと同様に {@code mods} 直下と {@code mods/<MCバージョン>} を対象とする
+     *
+     * @param modsDir modsディレクトリ
+     * @return 相対パス → ファイル (パス順)
+     */
+    public static Map<String, File> listModJars(File modsDir) {
+        Map<String, File> result = new LinkedHashMap<>();
+        collectJars(modsDir, "", result);
+        collectJars(new File(modsDir, MC_VERSION), MC_VERSION + "/", result);
+        return result;
+    }
+
+    private static void collectJars(File dir, String prefix, Map<String, File> result) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".jar") || name.endsWith(".zip"));
+        if (files == null) {
+            return;
+        }
+        List<File> sorted = new ArrayList<>(Arrays.asList(files));
+        sorted.sort(null);
+        for (File file : sorted) {
+            result.put(prefix + file.getName(), file);
+        }
+    }
+
+    /**
+     * jarの同一性判定用の値 (サイズと更新日時)
+     */
+    private static String fingerprint(File jar) {
+        return jar.length() + " " + jar.lastModified();
+    }
+}
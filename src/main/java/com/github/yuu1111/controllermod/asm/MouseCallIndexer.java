@@ -0,0 +1,258 @@
+package com.github.yuu1111.controllermod.asm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * MODのjarを走査してMouse呼び出し元クラスの索引を作成するスタンドアロンツール
+ *
+ * <p>
+ * jarはメモリマップして中央ディレクトリを直接読み、{@code .class} エントリだけを展開する。
+ * 判定は {@link MouseCallTransformer} のプリスキャンと同じコンスタントプール走査で行う。
+ * Gradleの {@code indexMouseCalls} タスクから実行される。
+ *
+ * <pre>
+ * java -cp ... com.github.yuu1111.controllermod.asm.MouseCallIndexer &lt;出力ファイル&gt; &lt;modsディレクトリ&gt;
+ * </pre>
+ */
+public final class MouseCallIndexer {
+
+    // ZIPのシグネチャ
+    private static final int SIG_LOCAL_HEADER = 0x04034b50;
+    private static final int SIG_CENTRAL_HEADER = 0x02014b50;
+    private static final int SIG_END_OF_CENTRAL = 0x06054b50;
+
+    // 圧縮方式
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+
+    /** 走査したクラス数 */
+    private int scannedClasses = 0;
+
+    /** 作成中の索引 */
+    private final MouseCallIndex index = new MouseCallIndex();
+
+    private MouseCallIndexer() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: MouseCallIndexer <output file> <mods directory>");
+            System.exit(2);
+        }
+
+        File output = new File(args[0]);
+        File modsDir = new File(args[1]);
+        if (!modsDir.isDirectory()) {
+            System.err.println("Not a directory: " + modsDir);
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        MouseCallIndexer indexer = new MouseCallIndexer();
+        Map<String, File> jars = MouseCallIndex.listModJars(modsDir);
+        for (Map.Entry<String, File> e : jars.entrySet()) {
+            indexer.index.addJar(e.getKey(), e.getValue());
+            indexer.scanJar(e.getValue());
+        }
+        indexer.index.write(output);
+
+        System.out.println(
+            "Indexed " + jars.size()
+                + " jars, "
+                + indexer.scannedClasses
+                + " classes: "
+                + indexer.index.getClassCount()
+                + " call Mouse ("
+                + (System.nanoTime() - start) / 1_000_000
+                + " ms) -> "
+                + output);
+    }
+
+    /**
+     * jarを走査する
+     *
+     * <p>
+     * メモリマップでの読み取りに失敗した場合 (ZIP64など) は {@link ZipFile} で読み直す
+     */
+    private void scanJar(File jar) throws IOException {
+        try {
+            scanMapped(jar);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Falling back to ZipFile for " + jar.getName() + ": " + e.getMessage());
+            scanWithZipFile(jar);
+        }
+    }
+
+    /**
+     * メモリマップしたjarの中央ディレクトリを直接読む
+     */
+    private void scanMapped(File jar) throws IOException {
+        try (FileChannel channel = FileChannel.open(jar.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+
+            int end = findEndOfCentralDirectory(buf);
+            int entries = buf.getShort(end + 10) & 0xFFFF;
+            int pos = buf.getInt(end + 16);
+            if (entries == 0xFFFF || pos == -1) {
+                throw new IOException("ZIP64 is not supported");
+            }
+
+            for (int i = 0; i < entries; i++) {
+                if (buf.getInt(pos) != SIG_CENTRAL_HEADER) {
+                    throw new IOException("Bad central directory header at " + pos);
+                }
+                int method = buf.getShort(pos + 10) & 0xFFFF;
+                int compressedSize = buf.getInt(pos + 20);
+                int size = buf.getInt(pos + 24);
+                int nameLength = buf.getShort(pos + 28) & 0xFFFF;
+                int extraLength = buf.getShort(pos + 30) & 0xFFFF;
+                int commentLength = buf.getShort(pos + 32) & 0xFFFF;
+                int localHeader = buf.getInt(pos + 42);
+                String name = readString(buf, pos + 46, nameLength);
+                pos += 46 + nameLength + extraLength + commentLength;
+
+                if (!isClassEntry(name)) {
+                    continue;
+                }
+                if (buf.getInt(localHeader) != SIG_LOCAL_HEADER) {
+                    throw new IOException("Bad local header for " + name);
+                }
+                int data = localHeader + 30
+                    + (buf.getShort(localHeader + 26) & 0xFFFF)
+                    + (buf.getShort(localHeader + 28) & 0xFFFF);
+                scanClass(name, readEntry(buf, data, method, compressedSize, size));
+            }
+        }
+    }
+
+    /**
+     * 中央ディレクトリ終端レコードを末尾から検索する
+     */
+    private static int findEndOfCentralDirectory(MappedByteBuffer buf) throws IOException {
+        // コメントは最大65535バイト
+        int min = Math.max(0, buf.limit() - 22 - 0xFFFF);
+        for (int pos = buf.limit() - 22; pos >= min; pos--) {
+            if (buf.getInt(pos) == SIG_END_OF_CENTRAL) {
+                return pos;
+            }
+        }
+        throw new IOException("End of central directory not found");
+    }
+
+    /**
+     * エントリの内容を取り出す
+     */
+    private static byte[] readEntry(MappedByteBuffer buf, int data, int method, int compressedSize, int size)
+        throws IOException {
+        byte[] compressed = new byte[compressedSize];
+        buf.position(data);
+        buf.get(compressed);
+        if (method == METHOD_STORED) {
+            return compressed;
+        }
+        if (method != METHOD_DEFLATED) {
+            throw new IOException("Unsupported compression method " + method);
+        }
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] out = new byte[size];
+            int read = 0;
+            while (read < size && !inflater.finished()) {
+                int n = inflater.inflate(out, read, size - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != size) {
+                throw new IOException("Truncated entry");
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static String readString(MappedByteBuffer buf, int pos, int length) {
+        byte[] bytes = new byte[length];
+        buf.position(pos);
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * {@link ZipFile} でjarを走査する (フォールバック)
+     */
+    private void scanWithZipFile(File jar) throws IOException {
+        try (ZipFile zip = new ZipFile(jar)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!isClassEntry(entry.getName()) || entry.getSize() < 0) {
+                    continue;
+                }
+                try (InputStream in = zip.getInputStream(entry)) {
+                    byte[] bytes = new byte[(int) entry.getSize()];
+                    int read = 0;
+                    while (read < bytes.length) {
+                        int n = in.read(bytes, read, bytes.length - read);
+                        if (n < 0) {
+                            break;
+                        }
+                        read += n;
+                    }
+                    scanClass(entry.getName(), bytes);
+                }
+            }
+        }
+    }
+
+    /**
+     * 走査対象のクラスファイルかどうか (META-INF以下は実行時に読み込まれないので除外)
+     */
+    private static boolean isClassEntry(String name) {
+        return name.endsWith(".class") && !name.startsWith("META-INF/");
+    }
+
+    /**
+     * クラスを判定して索引に登録する
+     *
+     * @param entryName ZIPエントリ名 (例: foo/bar/Baz.class)
+     * @param bytes     クラスファイルのバイト列
+     */
+    private void scanClass(String entryName, byte[] bytes) {
+        String className = entryName.substring(0, entryName.length() - ".class".length())
+            .replace('/', '.');
+        scannedClasses++;
+
+        boolean calls;
+        try {
+            calls = MouseCallTransformer.referencesHookedMethods(ClassConstantPool.parse(bytes));
+        } catch (RuntimeException e) {
+            // 解析できないクラスは実行時と同様に安全側 (変換対象) として扱う
+            calls = true;
+        }
+        if (calls) {
+            index.addClass(className);
+        } else {
+            index.addCleanClass(className);
+        }
+    }
+}
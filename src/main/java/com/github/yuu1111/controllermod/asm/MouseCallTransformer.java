@@ -1,5 +1,13 @@
 package com.github.yuu1111.controllermod.asm;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 import net.minecraft.launchwrapper.IClassTransformer;
 
 import org.objectweb.asm.ClassReader;
@@ -9,10 +17,10 @@ import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 
 /**
- * Mouse.getX/Y/isButtonDown() 呼び出しを置換するASMトランスフォーマー
+ * Mouse API の呼び出しを置換するASMトランスフォーマー
  *
  * <p>
- * Minecraftのクラス内での Mouse.getX(), Mouse.getY(), Mouse.isButtonDown() の呼び出しを
+ * Minecraftのクラス内での Mouse の座標・ボタン・イベント取得の呼び出しを
  * MouseHook のラッパーメソッドに置き換える
  *
  * <p>
@@ -21,7 +29,31 @@ import org.objectweb.asm.Opcodes;
  * <li>Mouse.getX() → MouseHook.getX()</li>
  * <li>Mouse.getY() → MouseHook.getY()</li>
  * <li>Mouse.isButtonDown(I) → MouseHook.isButtonDown(I)</li>
+ * <li>Mouse.next() / getEvent*() → MouseHook.next() / getEvent*() (合成イベントの合流)</li>
+ * <li>Mouse.getDWheel() → MouseHook.getDWheel() (右スティックのホイール)</li>
  * </ul>
+ *
+ * <p>
+ * バニラのクラスはMixinで対応しているため、このトランスフォーマーは
+ * {@code Mouse} を直接参照する他MODのGUI向けのオプション機能
+ * ({@link CoremodConfig#isMouseTransformerEnabled()} が有効な場合のみ登録される)
+ *
+ * <p>
+ * ほとんどのクラスはMouseを参照しないため、変換前にコンスタントプールだけを走査し、
+ * 置換対象のMethodrefが存在しないクラスはClassReaderを通さずにそのまま返す
+ *
+ * <p>
+ * 置換先は同名・同ディスクリプタのstaticメソッドなので、書き換えは
+ * {@link ConstantPoolPatcher} によるMethodrefの付け替えで行う。
+ * ClassVisitorによる書き換えはフォールバックとして残しており、
+ * {@code -Dcontrollermod.verifyPatch=true} で両者の結果を照合できる。
+ *
+ * <p>
+ * {@link MouseCallIndexer} で作成した事前索引が有効な場合、索引済みのクラスは
+ * プリスキャンも行わずにHashSetの照会だけで判定する。
+ *
+ * <p>
+ * クラスごとの所要時間・バイト数・置換箇所数は {@link TransformerStats} に記録される。
  */
 public class MouseCallTransformer implements IClassTransformer {
 
@@ -33,14 +65,53 @@ public class MouseCallTransformer implements IClassTransformer {
 
     /** 変換をスキップするパッケージ/クラスのプレフィックス */
     private static final String[] SKIP_PREFIXES = { "org.lwjgl", "com.github.yuu1111.controllermod.asm",
-        "com.github.yuu1111.controllermod.gui.VirtualCursorManager", "cpw.mods.fml", "net.minecraftforge",
+        "com.github.yuu1111.controllermod.gui.cursor", "cpw.mods.fml", "net.minecraftforge",
         "org.spongepowered", "java.", "sun.", "javax." };
 
-    /** デバッグログを出力するか */
-    private static final boolean DEBUG = false;
+    /**
+     * 変換ロジックのバージョン
+     *
+     * <p>
+     * 出力が変わる変更を加えた場合はインクリメントする ({@link MouseCallIndex} が作り直しを求める)
+     */
+    public static final int TRANSFORMER_VERSION = 4;
+
+    /** 置換対象のメソッド (メソッド名, ディスクリプタ) 置換先のMouseHookも同じシグネチャを持つ */
+    private static final String[][] HOOKED_METHODS = { { "getX", "()I" }, { "getY", "()I" },
+        { "isButtonDown", "(I)Z" }, { "next", "()Z" }, { "getEventButton", "()I" },
+        { "getEventButtonState", "()Z" }, { "getEventX", "()I" }, { "getEventY", "()I" }, { "getEventDX", "()I" },
+        { "getEventDY", "()I" }, { "getEventNanoseconds", "()J" }, { "getDWheel", "()I" },
+        { "getEventDWheel", "()I" } };
+
+    /** コンスタントプールの直接書き換えを使用するか ({@code -Dcontrollermod.rewriteEngine=visitor} で無効化) */
+    private static final boolean PATCH_ENGINE = !"visitor".equals(System.getProperty("controllermod.rewriteEngine"));
+
+    /** 直接書き換えの結果をClassVisitorの結果と照合するか ({@code -Dcontrollermod.verifyPatch=true}) */
+    private static final boolean VERIFY_PATCH = Boolean.getBoolean("controllermod.verifyPatch");
+
+    /** デバッグログを出力するか ({@code -Dcontrollermod.debugTransformer=true}) */
+    private static final boolean DEBUG = Boolean.getBoolean("controllermod.debugTransformer");
+
+    /** 事前索引 (null = 未使用) */
+    private static volatile MouseCallIndex index;
+
+    /** 事前索引により対象外と判定したクラス数 */
+    private static final AtomicInteger indexSkippedCount = new AtomicInteger();
+
+    /** プリスキャンを行ったクラス数 */
+    private static final AtomicInteger scannedCount = new AtomicInteger();
 
-    /** 変換されたクラス数 (デバッグ用) */
-    private static int transformedCount = 0;
+    /** プリスキャンで対象外と判定したクラス数 */
+    private static final AtomicInteger skippedCount = new AtomicInteger();
+
+    /** 書き換えたクラス数 */
+    private static final AtomicInteger rewrittenCount = new AtomicInteger();
+
+    /** プリスキャンに費やした時間 (ナノ秒) */
+    private static final AtomicLong prescanNanos = new AtomicLong();
+
+    /** 書き換えに費やした時間 (ナノ秒) */
+    private static final AtomicLong rewriteNanos = new AtomicLong();
 
     @Override
     public byte[] transform(String name, String transformedName, byte[] basicClass) {
@@ -53,28 +124,345 @@ public class MouseCallTransformer implements IClassTransformer {
             return basicClass;
         }
 
-        try {
-            ClassReader reader = new ClassReader(basicClass);
-            ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
-            MouseCallClassVisitor visitor = new MouseCallClassVisitor(writer, transformedName);
+        long start = System.nanoTime();
+        String[] outcome = { TransformerStats.OUTCOME_ERROR };
+        byte[] result = transformClass(name, transformedName, basicClass, outcome);
+        long nanos = System.nanoTime() - start;
 
-            reader.accept(visitor, 0);
+        // 置換箇所の集計はクラスをもう一度解析するため、記録中のみ行う (計測時間には含めない)
+        if (TransformerStats.isRecording()) {
+            Map<String, Integer> callSites = result != basicClass ? countHookCalls(result) : null;
+            TransformerStats.record(transformedName, nanos, basicClass.length, result.length, outcome[0], callSites);
+        }
+        return result;
+    }
 
-            if (visitor.isModified()) {
-                transformedCount++;
+    /**
+     * クラスを変換する
+     *
+     * @param name            クラス名 (難読化名)
+     * @param transformedName クラス名 (MCP名)
+     * @param basicClass      クラスファイルのバイト列
+     * @param outcome         判定結果 ({@code TransformerStats.OUTCOME_*}) の格納先
+     * @return 変換結果 (変更が無い場合は {@code basicClass})
+     */
+    private byte[] transformClass(String name, String transformedName, byte[] basicClass, String[] outcome) {
+        // 事前索引でMouseを呼ばないと分かっているクラスはバイトコードを見ない
+        // (難読化されたバニラのクラスは索引に含まれないので名前が一致するものだけ照会する)
+        MouseCallIndex activeIndex = index;
+        int indexed = MouseCallIndex.UNKNOWN;
+        if (activeIndex != null && transformedName.equals(name)) {
+            indexed = activeIndex.lookup(transformedName);
+            if (indexed == MouseCallIndex.ABSENT) {
+                indexSkippedCount.incrementAndGet();
+                outcome[0] = TransformerStats.OUTCOME_INDEX;
+                return basicClass;
+            }
+        }
+
+        // コンスタントプールに置換対象が無ければClassReaderを通さない
+        long start = System.nanoTime();
+        ClassConstantPool pool = parsePool(transformedName, basicClass);
+        boolean candidate = pool == null || indexed == MouseCallIndex.PRESENT || referencesHookedMethods(pool);
+        prescanNanos.addAndGet(System.nanoTime() - start);
+        scannedCount.incrementAndGet();
+        if (!candidate) {
+            skippedCount.incrementAndGet();
+            outcome[0] = TransformerStats.OUTCOME_PRESCAN;
+            return basicClass;
+        }
+
+        long rewriteStart = System.nanoTime();
+        try {
+            byte[] result = rewrite(transformedName, basicClass, pool);
+            if (result != null) {
+                int total = rewrittenCount.incrementAndGet();
                 if (DEBUG) {
-                    System.out.println(
-                        "[ControllerMod ASM] Transformed: " + transformedName + " (total: " + transformedCount + ")");
+                    System.out.println("[ControllerMod ASM] Transformed: " + transformedName + " (total: " + total + ")");
                 }
-                return writer.toByteArray();
             }
+            outcome[0] = result != null ? TransformerStats.OUTCOME_REWRITTEN : TransformerStats.OUTCOME_UNCHANGED;
+            return result != null ? result : basicClass;
         } catch (Exception e) {
             System.err.println("[ControllerMod ASM] Error transforming " + transformedName + ": " + e.getMessage());
+        } finally {
+            rewriteNanos.addAndGet(System.nanoTime() - rewriteStart);
         }
 
         return basicClass;
     }
 
+    /**
+     * 置換対象の呼び出しを書き換える
+     *
+     * <p>
+     * 通常はコンスタントプールの直接書き換えを使用する。
+     * コンスタントプールを解析できなかった場合やエントリを追加できない場合は
+     * ClassVisitorによる書き換えにフォールバックする。
+     *
+     * @param className  クラス名
+     * @param basicClass クラスファイルのバイト列
+     * @param pool       解析済みのコンスタントプール (解析に失敗した場合は {@code null})
+     * @return 書き換え後のバイト列 (変更が無い場合は {@code null})
+     */
+    private static byte[] rewrite(String className, byte[] basicClass, ClassConstantPool pool) {
+        if (pool != null && PATCH_ENGINE) {
+            int[] methodrefs = collectHookedMethodrefs(pool);
+            if (methodrefs.length == 0) {
+                return null;
+            }
+
+            byte[] patched = ConstantPoolPatcher.retargetMethodrefs(pool, basicClass, HOOK_CLASS, methodrefs);
+            if (patched != null) {
+                if (!VERIFY_PATCH) {
+                    return patched;
+                }
+
+                // 検証モード: ClassVisitorの結果と呼び出し先が一致するかを確認する
+                byte[] expected = rewriteWithVisitor(className, basicClass);
+                if (expected != null && describeCalls(patched).equals(describeCalls(expected))) {
+                    return patched;
+                }
+                System.err.println("[ControllerMod ASM] Patch verification failed for " + className + ", using visitor");
+                return expected;
+            }
+        }
+        return rewriteWithVisitor(className, basicClass);
+    }
+
+    /**
+     * ClassReader/ClassWriterを使って置換対象の呼び出しを書き換える
+     *
+     * @param className  クラス名
+     * @param basicClass クラスファイルのバイト列
+     * @return 書き換え後のバイト列 (変更が無い場合は {@code null})
+     */
+    private static byte[] rewriteWithVisitor(String className, byte[] basicClass) {
+        ClassReader reader = new ClassReader(basicClass);
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        MouseCallClassVisitor visitor = new MouseCallClassVisitor(writer, className);
+
+        reader.accept(visitor, 0);
+
+        return visitor.isModified() ? writer.toByteArray() : null;
+    }
+
+    /**
+     * クラス内の全メソッド呼び出しを列挙する (検証用)
+     *
+     * @param classBytes クラスファイルのバイト列
+     * @return "呼び出し元メソッド オペコード 呼び出し先" の一覧
+     */
+    private static List<String> describeCalls(byte[] classBytes) {
+        final List<String> calls = new ArrayList<>();
+        new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM5) {
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+                String[] exceptions) {
+                final String caller = name + desc;
+                return new MethodVisitor(Opcodes.ASM5) {
+
+                    @Override
+                    public void visitMethodInsn(int opcode, String owner, String n, String d, boolean itf) {
+                        calls.add(caller + " " + opcode + " " + owner + "." + n + d);
+                    }
+                };
+            }
+        }, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return calls;
+    }
+
+    /**
+     * 呼び出し元メソッドごとにMouseHookの呼び出し箇所を数える (計測用)
+     *
+     * @param classBytes 変換後のクラスファイルのバイト列
+     * @return "メソッド名+ディスクリプタ" → 呼び出し箇所数 (解析に失敗した場合は {@code null})
+     */
+    private static Map<String, Integer> countHookCalls(byte[] classBytes) {
+        final Map<String, Integer> counts = new LinkedHashMap<>();
+        try {
+            new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM5) {
+
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+                    String[] exceptions) {
+                    final String method = name + desc;
+                    return new MethodVisitor(Opcodes.ASM5) {
+
+                        @Override
+                        public void visitMethodInsn(int opcode, String owner, String n, String d, boolean itf) {
+                            if (HOOK_CLASS.equals(owner)) {
+                                counts.merge(method, 1, Integer::sum);
+                            }
+                        }
+                    };
+                }
+            }, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return counts;
+    }
+
+    /**
+     * コンスタントプールを解析する
+     *
+     * <p>
+     * 解析に失敗した場合は {@code null} を返し、安全側に倒して通常の変換処理に任せる
+     *
+     * @param className  クラス名 (ログ用)
+     * @param basicClass クラスファイルのバイト列
+     * @return 解析結果 (失敗した場合は {@code null})
+     */
+    private static ClassConstantPool parsePool(String className, byte[] basicClass) {
+        try {
+            return ClassConstantPool.parse(basicClass);
+        } catch (RuntimeException e) {
+            if (DEBUG) {
+                System.out.println("[ControllerMod ASM] Prescan failed for " + className + ": " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * コンスタントプールに置換対象のMethodrefが含まれるかを判定する
+     *
+     * @param pool 解析済みのコンスタントプール
+     * @return 含まれる場合は {@code true}
+     */
+    static boolean referencesHookedMethods(ClassConstantPool pool) {
+        for (int i = 1; i < pool.getCount(); i++) {
+            if (pool.getTag(i) == ClassConstantPool.TAG_METHODREF && findHookedMethod(pool, i) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 置換対象のMethodrefエントリを全て列挙する
+     *
+     * @param pool 解析済みのコンスタントプール
+     * @return Methodrefエントリのインデックス
+     */
+    static int[] collectHookedMethodrefs(ClassConstantPool pool) {
+        int[] found = new int[4];
+        int size = 0;
+        for (int i = 1; i < pool.getCount(); i++) {
+            if (pool.getTag(i) == ClassConstantPool.TAG_METHODREF && findHookedMethod(pool, i) >= 0) {
+                if (size == found.length) {
+                    found = Arrays.copyOf(found, size * 2);
+                }
+                found[size++] = i;
+            }
+        }
+        return Arrays.copyOf(found, size);
+    }
+
+    /**
+     * Methodrefエントリに対応する置換対象メソッドを検索する
+     *
+     * @param pool      解析済みのコンスタントプール
+     * @param methodref Methodrefエントリのインデックス
+     * @return {@link #HOOKED_METHODS} のインデックス (対象外の場合は-1)
+     */
+    static int findHookedMethod(ClassConstantPool pool, int methodref) {
+        if (!pool.classNameEquals(pool.readEntryU2(methodref, 0), MOUSE_CLASS)) {
+            return -1;
+        }
+        int nameAndType = pool.readEntryU2(methodref, 2);
+        for (int i = 0; i < HOOKED_METHODS.length; i++) {
+            if (pool.nameAndTypeEquals(nameAndType, HOOKED_METHODS[i][0], HOOKED_METHODS[i][1])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 置換対象のメソッドかどうかを判定する
+     *
+     * @param name メソッド名
+     * @param desc メソッドディスクリプタ
+     * @return 置換対象の場合は {@code true}
+     */
+    private static boolean isHookedMethod(String name, String desc) {
+        for (String[] hooked : HOOKED_METHODS) {
+            if (hooked[0].equals(name) && hooked[1].equals(desc)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 事前索引を設定する
+     *
+     * <p>
+     * Coremodの {@code injectData} から呼び出される
+     *
+     * @param mouseCallIndex 有効な索引 (使用しない場合は {@code null})
+     */
+    public static void setIndex(MouseCallIndex mouseCallIndex) {
+        index = mouseCallIndex;
+    }
+
+    /**
+     * 事前索引により対象外と判定したクラス数を取得する
+     *
+     * @return スキップしたクラス数
+     */
+    public static int getIndexSkippedCount() {
+        return indexSkippedCount.get();
+    }
+
+    /**
+     * プリスキャンを行ったクラス数を取得する
+     *
+     * @return スキャンしたクラス数
+     */
+    public static int getScannedCount() {
+        return scannedCount.get();
+    }
+
+    /**
+     * プリスキャンで対象外と判定したクラス数を取得する
+     *
+     * @return スキップしたクラス数
+     */
+    public static int getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    /**
+     * 書き換えたクラス数を取得する
+     *
+     * @return 書き換えたクラス数
+     */
+    public static int getRewrittenCount() {
+        return rewrittenCount.get();
+    }
+
+    /**
+     * プリスキャンに費やした時間を取得する
+     *
+     * @return 累計時間 (ナノ秒)
+     */
+    public static long getPrescanNanos() {
+        return prescanNanos.get();
+    }
+
+    /**
+     * 書き換え処理に費やした時間を取得する
+     *
+     * @return 累計時間 (ナノ秒)
+     */
+    public static long getRewriteNanos() {
+        return rewriteNanos.get();
+    }
+
     /**
      * 変換をスキップすべきクラスかどうかを判定する
      *
@@ -141,38 +529,15 @@ public class MouseCallTransformer implements IClassTransformer {
 
         @Override
         public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
-            // INVOKESTATIC org/lwjgl/input/Mouse.xxx を検出
-            if (opcode == Opcodes.INVOKESTATIC && MOUSE_CLASS.equals(owner)) {
-                // Mouse.getX()I → MouseHook.getX()I
-                if ("getX".equals(name) && "()I".equals(desc)) {
-                    if (DEBUG) {
-                        System.out.println("[ControllerMod ASM] Replacing Mouse.getX() in " + parent.getClassName());
-                    }
-                    super.visitMethodInsn(Opcodes.INVOKESTATIC, HOOK_CLASS, "getX", "()I", false);
-                    parent.setModified();
-                    return;
-                }
-
-                // Mouse.getY()I → MouseHook.getY()I
-                if ("getY".equals(name) && "()I".equals(desc)) {
-                    if (DEBUG) {
-                        System.out.println("[ControllerMod ASM] Replacing Mouse.getY() in " + parent.getClassName());
-                    }
-                    super.visitMethodInsn(Opcodes.INVOKESTATIC, HOOK_CLASS, "getY", "()I", false);
-                    parent.setModified();
-                    return;
-                }
-
-                // Mouse.isButtonDown(I)Z → MouseHook.isButtonDown(I)Z
-                if ("isButtonDown".equals(name) && "(I)Z".equals(desc)) {
-                    if (DEBUG) {
-                        System.out
-                            .println("[ControllerMod ASM] Replacing Mouse.isButtonDown() in " + parent.getClassName());
-                    }
-                    super.visitMethodInsn(Opcodes.INVOKESTATIC, HOOK_CLASS, "isButtonDown", "(I)Z", false);
-                    parent.setModified();
-                    return;
+            // INVOKESTATIC org/lwjgl/input/Mouse.xxx → MouseHook.xxx (同名・同ディスクリプタ)
+            if (opcode == Opcodes.INVOKESTATIC && MOUSE_CLASS.equals(owner) && isHookedMethod(name, desc)) {
+                if (DEBUG) {
+                    System.out.println(
+                        "[ControllerMod ASM] Replacing Mouse." + name + "() in " + parent.getClassName());
                 }
+                super.visitMethodInsn(Opcodes.INVOKESTATIC, HOOK_CLASS, name, desc, false);
+                parent.setModified();
+                return;
             }
 
             // 置換対象でない場合はそのまま
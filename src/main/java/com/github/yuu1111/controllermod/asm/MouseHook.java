@@ -1,26 +1,57 @@
 package com.github.yuu1111.controllermod.asm;
 
+import net.minecraft.client.gui.GuiScreen;
+
 import org.lwjgl.input.Mouse;
 
+import com.github.yuu1111.controllermod.gui.cursor.CursorSnapshot;
+import com.github.yuu1111.controllermod.gui.cursor.InputSourceArbiter;
+import com.github.yuu1111.controllermod.gui.cursor.MouseEventQueue;
+import com.github.yuu1111.controllermod.gui.cursor.MouseInputCoverage;
 import com.github.yuu1111.controllermod.gui.cursor.VirtualCursorManager;
 
 /**
- * Mouse API のフッククラス (ASM置換先)
+ * Mouse API のフッククラス (Mixin/ASM置換先)
  *
  * <p>
- * ASMトランスフォーマーにより Mouse.getX(), Mouse.getY(), Mouse.isButtonDown() の
+ * バニラのクラスではMixinの {@code @Redirect} から、他MODのクラスでは
+ * ASMトランスフォーマー (有効な場合) により Mouse.getX(), Mouse.getY(), Mouse.isButtonDown() の
  * 呼び出しがこのクラスのメソッドに置換される
  *
  * <p>
  * コントローラーモード時はバーチャルカーソルの値を、
  * そうでなければ実マウスの値を返す
+ *
+ * <p>
+ * 任意のスレッドから呼び出されるため、バーチャルカーソルの状態は
+ * {@link VirtualCursorManager#getSnapshot()} の1回のvolatile読み出しで取得する
+ *
+ * <p>
+ * Mouse.next() と getEvent*() はバーチャルカーソルの合成イベント ({@link MouseEventQueue}) を
+ * 実マウスのイベントストリームに合流させる。イベントループはクライアントスレッドでのみ回るため、
+ * これらはスナップショットを介さない
  */
 public final class MouseHook {
 
+    /** 他MODのクラスの Mouse 呼び出しもASMトランスフォーマーでこのクラスに置換されるか */
+    private static final boolean TRANSFORMER_ENABLED = CoremodConfig.isMouseTransformerEnabled();
+
     private MouseHook() {
         // ユーティリティクラス
     }
 
+    /**
+     * ASMトランスフォーマーが有効かを返す
+     *
+     * <p>
+     * 無効な場合、このクラスを経由するのはMixinで差し替えたバニラの呼び出し箇所のみとなる
+     *
+     * @return 有効な場合は {@code true}
+     */
+    public static boolean isTransformerEnabled() {
+        return TRANSFORMER_ENABLED;
+    }
+
     /**
      * マウスX座標を取得する
      *
@@ -30,8 +61,9 @@ public final class MouseHook {
      * @return マウスX座標 (ディスプレイ座標系)
      */
     public static int getX() {
-        if (VirtualCursorManager.isControllerInputActive()) {
-            return VirtualCursorManager.getDisplayX();
+        long state = VirtualCursorManager.getSnapshot();
+        if (CursorSnapshot.isControllerInput(state)) {
+            return CursorSnapshot.getDisplayX(state);
         }
         return Mouse.getX();
     }
@@ -45,8 +77,9 @@ public final class MouseHook {
      * @return マウスY座標 (ディスプレイ座標系)
      */
     public static int getY() {
-        if (VirtualCursorManager.isControllerInputActive()) {
-            return VirtualCursorManager.getDisplayY();
+        long state = VirtualCursorManager.getSnapshot();
+        if (CursorSnapshot.isControllerInput(state)) {
+            return CursorSnapshot.getDisplayY(state);
         }
         return Mouse.getY();
     }
@@ -67,9 +100,185 @@ public final class MouseHook {
             return true;
         }
         // コントローラーのボタン状態
-        if (VirtualCursorManager.isActive()) {
-            return VirtualCursorManager.isMouseButtonDown(button);
+        long state = VirtualCursorManager.getSnapshot();
+        return CursorSnapshot.isActive(state) && CursorSnapshot.isButtonDown(state, button);
+    }
+
+    /**
+     * マウスイベントのX座標を取得する
+     *
+     * <p>
+     * MixinによりGuiScreen.handleMouseInput() 内の Mouse.getEventX() の呼び出しがこのメソッドに置換される。
+     * 合成イベントの場合はその座標を返す。
+     * コントローラーモード中に実マウスのイベント (ホイールなど) が届いても、
+     * 座標はバーチャルカーソルの位置として扱う
+     *
+     * @return イベントのX座標 (ディスプレイ座標系)
+     */
+    public static int getEventX() {
+        if (MouseEventQueue.hasCurrent()) {
+            return MouseEventQueue.getX();
+        }
+        long state = VirtualCursorManager.getSnapshot();
+        if (CursorSnapshot.isControllerInput(state)) {
+            return CursorSnapshot.getDisplayX(state);
+        }
+        return Mouse.getEventX();
+    }
+
+    /**
+     * マウスイベントのY座標を取得する
+     *
+     * <p>
+     * MixinによりGuiScreen.handleMouseInput() 内の Mouse.getEventY() の呼び出しがこのメソッドに置換される
+     *
+     * @return イベントのY座標 (ディスプレイ座標系)
+     */
+    public static int getEventY() {
+        if (MouseEventQueue.hasCurrent()) {
+            return MouseEventQueue.getY();
+        }
+        long state = VirtualCursorManager.getSnapshot();
+        if (CursorSnapshot.isControllerInput(state)) {
+            return CursorSnapshot.getDisplayY(state);
+        }
+        return Mouse.getEventY();
+    }
+
+    /**
+     * 次のマウスイベントに進む
+     *
+     * <p>
+     * MixinによりGuiScreen.handleInput() などのイベントループ内の Mouse.next() の呼び出しが
+     * このメソッドに置換される。バーチャルカーソルの合成イベントを実マウスのイベントより先に返す。
+     * 実マウスのイベントは入力元の判定 ({@link InputSourceArbiter}) に渡す
+     *
+     * @return イベントがある場合は {@code true}
+     */
+    public static boolean next() {
+        if (MouseEventQueue.poll()) {
+            return true;
+        }
+        return nextReal();
+    }
+
+    /**
+     * 画面のイベントループで次のマウスイベントに進む
+     *
+     * <p>
+     * MixinによりGuiScreen.handleInput() 内の Mouse.next() の呼び出しがこのメソッドに置換される。
+     * 画面の handleMouseInput() が合成イベントを読めない場合 ({@link MouseInputCoverage#isCovered(GuiScreen)})
+     * は合成イベントを渡さず、実マウスのイベントのみを返す
+     *
+     * @param screen イベントループを回している画面
+     * @return イベントがある場合は {@code true}
+     */
+    public static boolean next(GuiScreen screen) {
+        if (MouseInputCoverage.isCovered(screen)) {
+            return next();
+        }
+        // 直前の合成イベントが現在のイベントとして残らないようにする
+        MouseEventQueue.clear();
+        return nextReal();
+    }
+
+    /**
+     * 実マウスの次のイベントに進み、入力元の判定 ({@link InputSourceArbiter}) に渡す
+     */
+    private static boolean nextReal() {
+        if (!Mouse.next()) {
+            return false;
+        }
+        InputSourceArbiter.onMouseEvent(
+            Mouse.getEventButton(),
+            Mouse.getEventButtonState(),
+            Mouse.getEventDX(),
+            Mouse.getEventDY(),
+            Mouse.getEventDWheel());
+        return true;
+    }
+
+    /**
+     * 現在のイベントのボタン番号を取得する
+     *
+     * @return ボタン番号 (移動のみの場合は-1)
+     */
+    public static int getEventButton() {
+        if (MouseEventQueue.hasCurrent()) {
+            return MouseEventQueue.getButton();
+        }
+        return Mouse.getEventButton();
+    }
+
+    /**
+     * 現在のイベントが押下かを取得する
+     *
+     * @return 押下の場合は {@code true}
+     */
+    public static boolean getEventButtonState() {
+        if (MouseEventQueue.hasCurrent()) {
+            return MouseEventQueue.getButtonState();
+        }
+        return Mouse.getEventButtonState();
+    }
+
+    /**
+     * 現在のイベントのX方向の移動量を取得する
+     *
+     * @return 移動量 (ディスプレイ座標系)
+     */
+    public static int getEventDX() {
+        if (MouseEventQueue.hasCurrent()) {
+            return MouseEventQueue.getDX();
+        }
+        return Mouse.getEventDX();
+    }
+
+    /**
+     * 現在のイベントのY方向の移動量を取得する
+     *
+     * @return 移動量 (ディスプレイ座標系)
+     */
+    public static int getEventDY() {
+        if (MouseEventQueue.hasCurrent()) {
+            return MouseEventQueue.getDY();
+        }
+        return Mouse.getEventDY();
+    }
+
+    /**
+     * 前回の呼び出し以降のホイール回転量を取得する
+     *
+     * <p>
+     * 実マウスとバーチャルカーソル (右スティック) の回転量の合計を返す
+     *
+     * @return 回転量 (1ノッチ = 120)
+     */
+    public static int getDWheel() {
+        return Mouse.getDWheel() + VirtualCursorManager.takeWheel();
+    }
+
+    /**
+     * 現在のイベントのホイール回転量を取得する
+     *
+     * @return 回転量 (1ノッチ = 120)
+     */
+    public static int getEventDWheel() {
+        if (MouseEventQueue.hasCurrent()) {
+            return MouseEventQueue.getDWheel();
+        }
+        return Mouse.getEventDWheel();
+    }
+
+    /**
+     * 現在のイベントの発生時刻を取得する
+     *
+     * @return 発生時刻 (ナノ秒)
+     */
+    public static long getEventNanoseconds() {
+        if (MouseEventQueue.hasCurrent()) {
+            return MouseEventQueue.getNanoseconds();
         }
-        return false;
+        return Mouse.getEventNanoseconds();
     }
 }
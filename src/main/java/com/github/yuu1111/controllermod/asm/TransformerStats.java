@@ -0,0 +1,235 @@
+package com.github.yuu1111.controllermod.asm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.github.yuu1111.controllermod.constants.Reference;
+
+/**
+ * MouseCallTransformerの計測結果
+ *
+ * <p>
+ * 変換を通ったクラスごとに所要時間・入出力のバイト数・判定結果を記録し、
+ * 書き換えたクラスについては呼び出し元メソッドごとの置換箇所数を記録する。
+ * FMLのロード完了時に {@link #writeReport()} で遅いクラスと置換の多いクラスを
+ * 降順に並べたレポートを {@code logs} ディレクトリに出力する。
+ */
+public final class TransformerStats {
+
+    /** 判定結果: 事前索引により対象外 */
+    public static final String OUTCOME_INDEX = "index";
+
+    /** 判定結果: プリスキャンにより対象外 */
+    public static final String OUTCOME_PRESCAN = "prescan";
+
+    /** 判定結果: 候補だったが置換箇所なし */
+    public static final String OUTCOME_UNCHANGED = "unchanged";
+
+    /** 判定結果: 書き換え */
+    public static final String OUTCOME_REWRITTEN = "rewritten";
+
+    /** 判定結果: 変換中にエラー */
+    public static final String OUTCOME_ERROR = "error";
+
+    /** レポートに出力する各ランキングの件数 */
+    private static final int TOP_COUNT = 50;
+
+    /** 記録 (変換順) */
+    private static final Queue<ClassRecord> RECORDS = new ConcurrentLinkedQueue<>();
+
+    /** レポートの出力先 (null = 出力しない) */
+    private static volatile File reportFile;
+
+    /** 記録中か (レポート出力後は記録を止めてメモリを解放する) */
+    private static volatile boolean recording = true;
+
+    private TransformerStats() {
+        // ユーティリティクラス
+    }
+
+    /**
+     * レポートの出力先を設定する
+     *
+     * <p>
+     * Coremodの {@code injectData} から呼び出される
+     *
+     * @param mcLocation Minecraftのディレクトリ
+     */
+    public static void init(File mcLocation) {
+        reportFile = new File(new File(mcLocation, "logs"), Reference.LOG_FILE_TRANSFORMER_REPORT);
+    }
+
+    /**
+     * 記録中かどうかを返す
+     *
+     * <p>
+     * 記録しない場合は、記録のためだけの集計 (置換箇所の数え上げなど) を省略できる
+     *
+     * @return 出力先が設定済みで、レポートをまだ出力していない場合は {@code true}
+     */
+    static boolean isRecording() {
+        return recording && reportFile != null;
+    }
+
+    /**
+     * クラスの変換結果を記録する
+     *
+     * @param className クラス名
+     * @param nanos     所要時間 (ナノ秒)
+     * @param bytesIn   入力のバイト数
+     * @param bytesOut  出力のバイト数
+     * @param outcome   判定結果 ({@code OUTCOME_*})
+     * @param callSites 呼び出し元メソッドごとの置換箇所数 (書き換えていない場合は {@code null})
+     */
+    static void record(String className, long nanos, int bytesIn, int bytesOut, String outcome,
+        Map<String, Integer> callSites) {
+        if (!isRecording()) {
+            return;
+        }
+        RECORDS.add(new ClassRecord(className, nanos, bytesIn, bytesOut, outcome, callSites));
+    }
+
+    /**
+     * レポートをファイルに出力する
+     *
+     * <p>
+     * ロード完了後に読み込まれたクラス (GUI画面など) は含まれない。
+     * 出力後は記録を破棄し、以降の記録も行わない
+     *
+     * @return 出力したファイル (出力先が未設定または失敗した場合は {@code null})
+     */
+    public static File writeReport() {
+        File file = reportFile;
+        if (file == null) {
+            return null;
+        }
+
+        recording = false;
+        List<ClassRecord> records = new ArrayList<>(RECORDS);
+        RECORDS.clear();
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            System.err.println("[ControllerMod ASM] Cannot create " + parent);
+            return null;
+        }
+
+        try (PrintWriter out = new PrintWriter(
+            new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8))) {
+            writeSummary(out, records);
+
+            List<ClassRecord> slowest = new ArrayList<>(records);
+            slowest.sort(Comparator.comparingLong((ClassRecord r) -> r.nanos)
+                .reversed());
+            out.println();
+            out.println("== Slowest classes (top " + TOP_COUNT + ") ==");
+            out.println(String.format("%10s %9s %9s  %-9s  %s", "us", "in", "out", "outcome", "class"));
+            for (ClassRecord r : slowest.subList(0, Math.min(TOP_COUNT, slowest.size()))) {
+                out.println(
+                    String.format(
+                        "%10.1f %9d %9d  %-9s  %s",
+                        r.nanos / 1000.0,
+                        r.bytesIn,
+                        r.bytesOut,
+                        r.outcome,
+                        r.className));
+            }
+
+            List<ClassRecord> rewritten = new ArrayList<>();
+            for (ClassRecord r : records) {
+                if (r.callSites != null) {
+                    rewritten.add(r);
+                }
+            }
+            rewritten.sort(Comparator.comparingInt((ClassRecord r) -> r.totalCallSites)
+                .reversed());
+            out.println();
+            out.println("== Most rewritten classes (top " + TOP_COUNT + ") ==");
+            for (ClassRecord r : rewritten.subList(0, Math.min(TOP_COUNT, rewritten.size()))) {
+                out.println(String.format("%5d  %s (%s)", r.totalCallSites, r.className, r.outcome));
+                List<Map.Entry<String, Integer>> methods = new ArrayList<>(r.callSites.entrySet());
+                methods.sort(Collections.reverseOrder(Map.Entry.comparingByValue()));
+                for (Map.Entry<String, Integer> e : methods) {
+                    out.println(String.format("%5d      %s", e.getValue(), e.getKey()));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[ControllerMod ASM] Failed to write transformer report: " + e.getMessage());
+            return null;
+        }
+        return file;
+    }
+
+    /**
+     * 集計値を出力する
+     */
+    private static void writeSummary(PrintWriter out, List<ClassRecord> records) {
+        long totalNanos = 0;
+        long bytesIn = 0;
+        long bytesOut = 0;
+        int totalCallSites = 0;
+        Map<String, Integer> outcomes = new TreeMap<>();
+        for (ClassRecord r : records) {
+            totalNanos += r.nanos;
+            bytesIn += r.bytesIn;
+            bytesOut += r.bytesOut;
+            totalCallSites += r.totalCallSites;
+            outcomes.merge(r.outcome, 1, Integer::sum);
+        }
+
+        out.println("ControllerMod Mouse transformer report");
+        out.println("Written at FML load complete; classes loaded later are not included.");
+        out.println();
+        out.println("Classes:    " + records.size() + " " + outcomes);
+        out.println(String.format("Time:       %.1f ms", totalNanos / 1_000_000.0));
+        out.println("Bytes:      " + bytesIn + " in, " + bytesOut + " out");
+        out.println("Call sites: " + totalCallSites + " rewritten");
+    }
+
+    /**
+     * クラスごとの記録
+     */
+    private static class ClassRecord {
+
+        final String className;
+        final long nanos;
+        final int bytesIn;
+        final int bytesOut;
+        final String outcome;
+
+        /** 呼び出し元メソッド (名前+ディスクリプタ) → 置換箇所数 (null = 書き換えなし) */
+        final Map<String, Integer> callSites;
+
+        /** 置換箇所数の合計 */
+        final int totalCallSites;
+
+        ClassRecord(String className, long nanos, int bytesIn, int bytesOut, String outcome,
+            Map<String, Integer> callSites) {
+            this.className = className;
+            this.nanos = nanos;
+            this.bytesIn = bytesIn;
+            this.bytesOut = bytesOut;
+            this.outcome = outcome;
+            this.callSites = callSites;
+
+            int total = 0;
+            if (callSites != null) {
+                for (int count : callSites.values()) {
+                    total += count;
+                }
+            }
+            this.totalCallSites = total;
+        }
+    }
+}
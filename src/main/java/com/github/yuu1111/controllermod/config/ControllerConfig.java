@@ -24,13 +24,14 @@ public class ControllerConfig {
     public static float deadzone = 0.25f;
 
     /**
-     * 視点操作の感度
+     * 視点操作の速度
+     * 右スティックを最大まで倒したときの1秒あたりの回転角度 (度)
      */
-    @Config.LangKey("controllermod.config.lookSensitivity")
-    @Config.Comment("Look sensitivity for right stick")
-    @Config.DefaultFloat(4.0f)
-    @Config.RangeFloat(min = 1.0f, max = 20.0f)
-    public static float lookSensitivity = 4.0f;
+    @Config.LangKey("controllermod.config.lookSpeedPerSecond")
+    @Config.Comment("Look speed for right stick at full tilt (degrees per second)")
+    @Config.DefaultFloat(80.0f)
+    @Config.RangeFloat(min = 20.0f, max = 400.0f)
+    public static float lookSpeedPerSecond = 80.0f;
 
     /**
      * Y軸反転
@@ -50,13 +51,82 @@ public class ControllerConfig {
     @Config.RangeFloat(min = 0.1f, max = 0.9f)
     public static float triggerThreshold = 0.5f;
 
+    /**
+     * コントローラーのポーリング頻度 (Hz)
+     * 専用スレッドでこの頻度でコントローラーの状態を読み込む
+     */
+    @Config.LangKey("controllermod.config.pollRate")
+    @Config.Comment("Controller polling rate on the dedicated input thread (Hz)")
+    @Config.DefaultInt(500)
+    @Config.RangeInt(min = 250, max = 1000)
+    public static int pollRate = 500;
+
     /**
      * バーチャルカーソルの移動速度
-     * GUI画面でのスティック入力に対するカーソル移動量
+     * GUI画面でスティックを最大まで倒したときの1秒あたりの移動量 (GUI座標系のピクセル)
+     */
+    @Config.LangKey("controllermod.config.cursorSpeedPerSecond")
+    @Config.Comment("Virtual cursor speed in GUI at full tilt (GUI pixels per second)")
+    @Config.DefaultFloat(300.0f)
+    @Config.RangeFloat(min = 20.0f, max = 2000.0f)
+    public static float cursorSpeedPerSecond = 300.0f;
+
+    /**
+     * バーチャルカーソルの加速カーブ
+     * スティックの傾き (0.0 〜 1.0) をこの値で累乗して速度に掛ける
+     * 1.0で比例、大きいほど小さな傾きでの微調整がしやすくなる
+     */
+    @Config.LangKey("controllermod.config.cursorAcceleration")
+    @Config.Comment("Virtual cursor acceleration curve exponent (1.0 = linear, higher = finer control at small tilt)")
+    @Config.DefaultFloat(2.0f)
+    @Config.RangeFloat(min = 1.0f, max = 4.0f)
+    public static float cursorAcceleration = 2.0f;
+
+    /**
+     * スロットへの吸着
+     * コンテナ画面でスティックを離したとき、近くのスロットの中心へカーソルを引き寄せる
+     */
+    @Config.LangKey("controllermod.config.slotMagnetism")
+    @Config.Comment("Pull the virtual cursor to the nearest slot when the stick is released in container GUIs")
+    @Config.DefaultBoolean(true)
+    public static boolean slotMagnetism = true;
+
+    /**
+     * カーソル位置の記憶件数
+     * GUIを閉じたときのカーソル位置を画面ごとに記憶し、次に開いたときに復元する
+     * 件数を超えると最も長く使われていない画面から忘れる (0で無効)
+     */
+    @Config.LangKey("controllermod.config.cursorMemorySize")
+    @Config.Comment("Number of GUI screens whose virtual cursor position is remembered (0 = disabled)")
+    @Config.DefaultInt(64)
+    @Config.RangeInt(min = 0, max = 1024)
+    public static int cursorMemorySize = 64;
+
+    /**
+     * カーソル位置をコンテナごとに記憶する
+     * 同じ画面でも中身の異なるコンテナ (チェストの名前・スロット数など) を区別する
+     */
+    @Config.LangKey("controllermod.config.cursorMemoryPerContainer")
+    @Config.Comment("Remember the virtual cursor position per container instead of per screen type")
+    @Config.DefaultBoolean(true)
+    public static boolean cursorMemoryPerContainer = true;
+
+    /**
+     * カーソル位置の記憶をファイルに保存する
+     * ゲームを再起動しても記憶したカーソル位置を引き継ぐ
+     */
+    @Config.LangKey("controllermod.config.cursorMemoryPersist")
+    @Config.Comment("Save remembered virtual cursor positions across game sessions")
+    @Config.DefaultBoolean(false)
+    public static boolean cursorMemoryPersist = false;
+
+    /**
+     * ホイールの回転速度
+     * GUI画面で右スティックを最大まで倒したときの1秒あたりのノッチ数
      */
-    @Config.LangKey("controllermod.config.cursorSpeed")
-    @Config.Comment("Virtual cursor speed in GUI (pixels per tick)")
+    @Config.LangKey("controllermod.config.scrollSpeed")
+    @Config.Comment("Scroll speed in GUI with the right stick (wheel notches per second at full tilt)")
     @Config.DefaultFloat(8.0f)
     @Config.RangeFloat(min = 1.0f, max = 30.0f)
-    public static float cursorSpeed = 8.0f;
+    public static float scrollSpeed = 8.0f;
 }
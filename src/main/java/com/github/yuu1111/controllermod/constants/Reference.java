@@ -9,4 +9,13 @@ public class Reference {
 
     // 設定ファイル名
     public static final String CONFIG_FILE_BINDINGS = "controllermod_bindings.json";
+    public static final String CONFIG_FILE_MOUSE_INDEX = "controllermod_mouse_index.txt";
+    public static final String CONFIG_FILE_COREMOD = "controllermod_coremod.properties";
+    public static final String CONFIG_FILE_CURSOR_MEMORY = "controllermod_cursor_memory.json";
+
+    // ログファイル名
+    public static final String LOG_FILE_TRANSFORMER_REPORT = "controllermod_transformer_report.txt";
+
+    // テクスチャ
+    public static final String TEXTURE_CURSOR_ATLAS = "textures/gui/cursor.png";
 }
@@ -23,6 +23,9 @@ public final class SDL2 {
     public static final int AXIS_TRIGGER_LEFT = 4;
     public static final int AXIS_TRIGGER_RIGHT = 5;
 
+    /** 軸の数 (SDL_CONTROLLER_AXIS_MAX) */
+    public static final int AXIS_MAX = 6;
+
     // ボタンインデックス
     public static final int BUTTON_A = 0;
     public static final int BUTTON_B = 1;
@@ -40,6 +43,17 @@ public final class SDL2 {
     public static final int BUTTON_DPAD_LEFT = 13;
     public static final int BUTTON_DPAD_RIGHT = 14;
 
+    // SDL 2.0.14 以降で追加されたボタン
+    public static final int BUTTON_MISC1 = 15;
+    public static final int BUTTON_PADDLE1 = 16;
+    public static final int BUTTON_PADDLE2 = 17;
+    public static final int BUTTON_PADDLE3 = 18;
+    public static final int BUTTON_PADDLE4 = 19;
+    public static final int BUTTON_TOUCHPAD = 20;
+
+    /** ボタンの数 (SDL_CONTROLLER_BUTTON_MAX) */
+    public static final int BUTTON_MAX = 21;
+
     // トリガーの仮想ボタンインデックス (バインド設定用)
     public static final int TRIGGER_LEFT = 100;
     public static final int TRIGGER_RIGHT = 101;
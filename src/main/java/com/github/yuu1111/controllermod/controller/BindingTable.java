@@ -0,0 +1,164 @@
+package com.github.yuu1111.controllermod.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.yuu1111.controllermod.constants.SDL2;
+import com.github.yuu1111.controllermod.input.Keybind;
+import com.github.yuu1111.controllermod.input.KeybindRegistry;
+
+/**
+ * 物理入力 (ボタン・トリガー) ごとのアクションの表
+ *
+ * <p>
+ * バインドとアクション (オペコード) の組を登録しておき、物理入力の番号から
+ * 割り当てられたアクションを引ける形に構築する。1つの物理入力に複数のアクションが割り当てられる場合もあるため、
+ * アクションは物理入力の順に1つの配列に並べ、物理入力ごとの開始位置を持つ。
+ *
+ * <p>
+ * 表はバインドの割り当てが変わった場合 ({@link KeybindRegistry#getGeneration()} が変わった場合) のみ構築し直す。
+ * 入力の処理では変化した物理入力のアクションだけを引くため、バインドの数によらず変化した入力の数だけの処理で済む
+ *
+ * <p>
+ * クライアントスレッドからのみ呼び出すこと
+ */
+final class BindingTable {
+
+    /** ボタンの数 (物理入力の番号 0 〜 {@link SDL2#BUTTON_MAX} - 1 はSDL2ボタンコード) */
+    static final int BUTTON_COUNT = SDL2.BUTTON_MAX;
+
+    /** 左トリガーの物理入力の番号 */
+    static final int INPUT_TRIGGER_LEFT = BUTTON_COUNT;
+
+    /** 右トリガーの物理入力の番号 */
+    static final int INPUT_TRIGGER_RIGHT = BUTTON_COUNT + 1;
+
+    /** 物理入力の数 */
+    static final int INPUT_COUNT = BUTTON_COUNT + 2;
+
+    /** 登録されたバインド */
+    private final List<Keybind> bindings = new ArrayList<>();
+
+    /** 登録されたアクション (バインドと同じ順) */
+    private final List<Integer> actions = new ArrayList<>();
+
+    /** 物理入力ごとのアクションの開始位置 ({@code ops[offsets[i]]} 〜 {@code ops[offsets[i + 1] - 1]}) */
+    private final int[] offsets = new int[INPUT_COUNT + 1];
+
+    /** 物理入力の順に並べたアクション */
+    private int[] ops = new int[0];
+
+    /** 構築時のバインドの変更回数 */
+    private int builtGeneration;
+
+    /** 構築済みか */
+    private boolean built = false;
+
+    /**
+     * バインドにアクションを割り当てる
+     *
+     * @param binding バインド
+     * @param op      アクション (呼び出し側で定義するオペコード)
+     */
+    void register(Keybind binding, int op) {
+        bindings.add(binding);
+        actions.add(op);
+        built = false;
+    }
+
+    /**
+     * バインドの割り当てが変わっていれば表を構築し直す
+     *
+     * @return 構築し直した場合は {@code true}
+     */
+    boolean rebuildIfChanged() {
+        int generation = KeybindRegistry.getGeneration();
+        if (built && generation == builtGeneration) {
+            return false;
+        }
+        built = true;
+        builtGeneration = generation;
+
+        // 物理入力ごとの数を数えてから開始位置を決め、順に詰める
+        int[] counts = new int[INPUT_COUNT];
+        for (Keybind binding : bindings) {
+            int input = inputOf(binding);
+            if (input >= 0) {
+                counts[input]++;
+            }
+        }
+        offsets[0] = 0;
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            offsets[i + 1] = offsets[i] + counts[i];
+        }
+        if (ops.length != offsets[INPUT_COUNT]) {
+            ops = new int[offsets[INPUT_COUNT]];
+        }
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            counts[i] = offsets[i];
+        }
+        for (int k = 0; k < bindings.size(); k++) {
+            int input = inputOf(bindings.get(k));
+            if (input >= 0) {
+                ops[counts[input]++] = actions.get(k);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 物理入力のアクションの開始位置を返す
+     *
+     * @param input 物理入力の番号
+     * @return {@link #getOp(int)} に渡す位置
+     */
+    int start(int input) {
+        return offsets[input];
+    }
+
+    /**
+     * 物理入力のアクションの終了位置 (この位置を含まない) を返す
+     *
+     * @param input 物理入力の番号
+     * @return {@link #getOp(int)} に渡す位置
+     */
+    int end(int input) {
+        return offsets[input + 1];
+    }
+
+    /**
+     * 指定の位置のアクションを返す
+     *
+     * @param index {@link #start(int)} 〜 {@link #end(int)} の位置
+     * @return アクション
+     */
+    int getOp(int index) {
+        return ops[index];
+    }
+
+    /**
+     * バインドの物理入力の番号を返す
+     *
+     * @param binding バインド
+     * @return 物理入力の番号 (割り当てが無いか範囲外の場合は-1)
+     */
+    static int inputOf(Keybind binding) {
+        return binding.isUnbound() ? -1 : inputOf(binding.getButton());
+    }
+
+    /**
+     * ボタン/トリガーのインデックスの物理入力の番号を返す
+     *
+     * @param button ボタン/トリガーのインデックス ({@link SDL2#BUTTON_A}、{@link SDL2#TRIGGER_LEFT} など)
+     * @return 物理入力の番号 (範囲外の場合は-1)
+     */
+    static int inputOf(int button) {
+        if (button == SDL2.TRIGGER_LEFT) {
+            return INPUT_TRIGGER_LEFT;
+        }
+        if (button == SDL2.TRIGGER_RIGHT) {
+            return INPUT_TRIGGER_RIGHT;
+        }
+        return button >= 0 && button < BUTTON_COUNT ? button : -1;
+    }
+}
@@ -0,0 +1,183 @@
+package com.github.yuu1111.controllermod.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * コントローラーの入力イベントのリングバッファ
+ *
+ * <p>
+ * {@link ControllerPoller} のスレッドが書き込み、クライアントスレッドが読み出す
+ * 1対1 (single-producer / single-consumer) のロックフリーキュー。
+ * イベントの各フィールドは事前に確保した配列に格納し、イベントごとの割り当ては行わない。
+ *
+ * <p>
+ * 書き込み位置・読み出し位置はそれぞれ一方のスレッドだけが更新する。
+ * 相手側の位置は {@link AtomicLong} で公開し、配列への書き込みは位置の公開より前に行うため、
+ * 読み出し側は公開済みの位置までのイベントを完全な状態で読める
+ */
+final class ControllerEventRing {
+
+    /** ボタンの押下 */
+    static final int BUTTON_DOWN = 0;
+
+    /** ボタンの解放 */
+    static final int BUTTON_UP = 1;
+
+    /** 軸の値の変化 */
+    static final int AXIS = 2;
+
+    private final int mask;
+
+    // イベントの各フィールド (リングバッファ)
+    private final int[] types;
+    private final int[] codes;
+    private final float[] values;
+    private final long[] nanos;
+
+    /** 次に書き込む位置 (書き込みスレッドが更新) */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** 次に読み出す位置 (読み出しスレッドが更新) */
+    private final AtomicLong head = new AtomicLong();
+
+    /** 書き込みスレッドが最後に読んだ読み出し位置 (書き込みスレッドのみ) */
+    private long cachedHead = 0;
+
+    /** 読み出しスレッドが最後に読んだ書き込み位置 (読み出しスレッドのみ) */
+    private long cachedTail = 0;
+
+    // 現在のイベント (読み出しスレッドのみ)
+    private int currentType;
+    private int currentCode;
+    private float currentValue;
+    private long currentNanos;
+
+    /**
+     * コンストラクタ
+     *
+     * @param capacity 容量 (2の累乗)
+     */
+    ControllerEventRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        mask = capacity - 1;
+        types = new int[capacity];
+        codes = new int[capacity];
+        values = new float[capacity];
+        nanos = new long[capacity];
+    }
+
+    // ========================================
+    // 書き込みスレッド用
+    // ========================================
+
+    /**
+     * 空き容量を返す
+     *
+     * @return 書き込めるイベントの数
+     */
+    int remaining() {
+        cachedHead = head.get();
+        return types.length - (int) (tail.get() - cachedHead);
+    }
+
+    /**
+     * イベントを書き込む
+     *
+     * @param type  種類 ({@link #BUTTON_DOWN} / {@link #BUTTON_UP} / {@link #AXIS})
+     * @param code  SDL2ボタンコードまたは軸コード
+     * @param value 軸の値 (ボタンの場合は0)
+     * @param time  発生時刻 ({@link System#nanoTime()})
+     * @return 満杯で書き込めなかった場合は {@code false}
+     */
+    boolean offer(int type, int code, float value, long time) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) {
+                return false;
+            }
+        }
+        int i = (int) t & mask;
+        types[i] = type;
+        codes[i] = code;
+        values[i] = value;
+        nanos[i] = time;
+        // 配列への書き込みを済ませてから位置を公開する
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // ========================================
+    // 読み出しスレッド用
+    // ========================================
+
+    /**
+     * 次のイベントを現在のイベントとして読み込む (読み出し位置は進めない)
+     *
+     * <p>
+     * 処理したイベントは {@link #advance()} で取り除く
+     *
+     * @return イベントがある場合は {@code true}
+     */
+    boolean peek() {
+        long h = head.get();
+        if (h == cachedTail) {
+            cachedTail = tail.get();
+            if (h == cachedTail) {
+                return false;
+            }
+        }
+        int i = (int) h & mask;
+        currentType = types[i];
+        currentCode = codes[i];
+        currentValue = values[i];
+        currentNanos = nanos[i];
+        return true;
+    }
+
+    /**
+     * 現在のイベントを取り除く
+     */
+    void advance() {
+        // 現在のイベントを読み終えてから書き込みスレッドに領域を返す
+        head.lazySet(head.get() + 1);
+    }
+
+    /**
+     * 現在のイベントの種類を取得する
+     *
+     * @return {@link #BUTTON_DOWN} / {@link #BUTTON_UP} / {@link #AXIS}
+     */
+    int getType() {
+        return currentType;
+    }
+
+    /**
+     * 現在のイベントのボタンコードまたは軸コードを取得する
+     *
+     * @return SDL2ボタンコードまたは軸コード
+     */
+    int getCode() {
+        return currentCode;
+    }
+
+    /**
+     * 現在のイベントの軸の値を取得する
+     *
+     * @return 軸の値 (-1.0 〜 1.0、ボタンの場合は0)
+     */
+    float getValue() {
+        return currentValue;
+    }
+
+    /**
+     * 現在のイベントの発生時刻を取得する
+     *
+     * @return {@link System#nanoTime()} の値
+     */
+    long getNanos() {
+        return currentNanos;
+    }
+}
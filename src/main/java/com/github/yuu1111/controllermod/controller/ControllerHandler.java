@@ -1,30 +1,29 @@
 package com.github.yuu1111.controllermod.controller;
 
-import com.badlogic.gdx.controllers.Controller;
-import com.badlogic.gdx.controllers.ControllerListener;
-import com.badlogic.gdx.controllers.PovDirection;
-import com.badlogic.gdx.math.Vector3;
 import com.github.yuu1111.controllermod.ControllerMod;
 
-import uk.co.electronstudio.sdl2gdx.SDL2ControllerManager;
-
 /**
  * SDL2 (sdl2gdx経由) を使用してコントローラー入力を処理するハンドラークラス
  *
  * <p>
- * このクラスは {@link ControllerListener} を実装し、コントローラーの接続/切断、
- * ボタン入力、軸入力などのイベントを受け取り、{@link InputHandler} に委譲する
+ * SDL2の初期化とポーリングは {@link ControllerPoller} の専用スレッドで高頻度に行い、
+ * ボタン・軸の変化は {@link ControllerEventRing} を介してクライアントスレッドに渡す。
+ * このクラスはtickと描画フレームごとにリングを読み出し、{@link InputHandler} に委譲する。
+ * tickの間に押して離したボタンも取りこぼさない
  *
  * @see InputHandler
- * @see SDL2ControllerManager
+ * @see ControllerPoller
  */
-public class ControllerHandler implements ControllerListener {
+public class ControllerHandler {
+
+    /** イベントリングの容量 (クライアントスレッドが数秒止まっても溢れにくい大きさ) */
+    private static final int RING_CAPACITY = 8192;
 
-    /** SDL2コントローラーマネージャー */
-    private SDL2ControllerManager controllerManager;
+    /** ポーラーからクライアントスレッドへのイベント */
+    private final ControllerEventRing ring = new ControllerEventRing(RING_CAPACITY);
 
-    /** 初期化済みフラグ */
-    private boolean initialized = false;
+    /** ポーリングスレッド */
+    private ControllerPoller poller;
 
     /** 入力ハンドラー */
     private final InputHandler inputHandler = new InputHandler();
@@ -33,37 +32,55 @@ public class ControllerHandler implements ControllerListener {
      * コントローラーシステムを初期化する
      *
      * <p>
-     * SDL2ControllerManagerを作成し、既に接続されているコントローラーに対して
-     * リスナーを登録する初期化に失敗した場合はエラーログを出力する
+     * ポーリングスレッドを開始する。SDL2の初期化はそのスレッドで行われ、
+     * 失敗した場合はエラーログを出力する
      */
     public void init() {
-        try {
-            controllerManager = new SDL2ControllerManager();
-            controllerManager.addListenerAndRunForConnectedControllers(this);
-            initialized = true;
-            ControllerMod.LOG.info("SDL2 Controller system initialized");
-        } catch (Exception e) {
-            ControllerMod.LOG.error("Failed to initialize SDL2 controller system", e);
-        }
+        poller = new ControllerPoller(ring);
+        poller.start();
     }
 
     /**
      * コントローラーの状態を更新する
      *
      * <p>
-     * 毎ティック呼び出され、コントローラーの入力状態をポーリングし、
+     * 毎ティック呼び出され、ポーラーが書き込んだ入力イベントを読み出してから
      * {@link InputHandler#applyMovement()} を呼び出してMinecraftに入力を適用する
      */
     public void update() {
-        if (!initialized || controllerManager == null) {
+        if (!isInitialized()) {
             return;
         }
 
         try {
-            controllerManager.pollState();
+            inputHandler.drainEvents(ring);
             inputHandler.applyMovement();
         } catch (Exception e) {
-            ControllerMod.LOG.error("Error polling controller state", e);
+            ControllerMod.LOG.error("Error applying controller input", e);
+        }
+    }
+
+    /**
+     * 描画フレームごとに視点操作とGUI操作を適用する
+     *
+     * <p>
+     * ワールドとGUIの描画の前に毎フレーム呼び出され、入力イベントを読み出してから
+     * {@link InputHandler#updateLookFrame()} で右スティックの視点操作を、
+     * {@link InputHandler#updateGuiFrame()} でバーチャルカーソルの操作を反映する。
+     * tick単位の読み出しだけでは押下の検出が最大1tick遅れるため、ここでも読み出す。
+     * 画面の描画より前に処理するため、クリックで画面が切り替わっても描画中の画面には影響しない
+     */
+    public void updateRenderFrame() {
+        if (!isInitialized()) {
+            return;
+        }
+
+        try {
+            inputHandler.drainEvents(ring);
+            inputHandler.updateLookFrame();
+            inputHandler.updateGuiFrame();
+        } catch (Exception e) {
+            ControllerMod.LOG.error("Error applying controller input", e);
         }
     }
 
@@ -71,14 +88,12 @@ public class ControllerHandler implements ControllerListener {
      * コントローラーシステムをシャットダウンする
      *
      * <p>
-     * SDL2ControllerManagerを閉じ、リソースを解放する
+     * ポーリングスレッドを停止し、SDL2ControllerManagerを閉じる
      */
     public void shutdown() {
-        if (controllerManager != null) {
-            controllerManager.close();
-            controllerManager = null;
-            initialized = false;
-            ControllerMod.LOG.info("SDL2 Controller system shut down");
+        if (poller != null) {
+            poller.stop();
+            poller = null;
         }
     }
 
@@ -88,7 +103,7 @@ public class ControllerHandler implements ControllerListener {
      * @return 初期化済みの場合は {@code true}
      */
     public boolean isInitialized() {
-        return initialized;
+        return poller != null && poller.isInitialized();
     }
 
     /**
@@ -99,125 +114,4 @@ public class ControllerHandler implements ControllerListener {
     public InputHandler getInputHandler() {
         return inputHandler;
     }
-
-    /**
-     * {@inheritDoc}
-     *
-     * <p>
-     * コントローラーが接続された時に呼び出される
-     *
-     * @param controller 接続されたコントローラー
-     */
-    @Override
-    public void connected(Controller controller) {
-        ControllerMod.LOG.info("Controller connected: {}", controller.getName());
-    }
-
-    /**
-     * {@inheritDoc}
-     *
-     * <p>
-     * コントローラーが切断された時に呼び出される
-     *
-     * @param controller 切断されたコントローラー
-     */
-    @Override
-    public void disconnected(Controller controller) {
-        ControllerMod.LOG.info("Controller disconnected: {}", controller.getName());
-    }
-
-    /**
-     * {@inheritDoc}
-     *
-     * <p>
-     * ボタンが押された時に呼び出される
-     *
-     * @param controller ボタンが押されたコントローラー
-     * @param buttonCode SDL2ボタンコード
-     * @return イベントを消費した場合は {@code true}
-     */
-    @Override
-    public boolean buttonDown(Controller controller, int buttonCode) {
-        ControllerMod.LOG.info("Button DOWN: {} on {}", buttonCode, controller.getName());
-        inputHandler.updateButton(buttonCode, true);
-        return false;
-    }
-
-    /**
-     * {@inheritDoc}
-     *
-     * <p>
-     * ボタンが離された時に呼び出される
-     *
-     * @param controller ボタンが離されたコントローラー
-     * @param buttonCode SDL2ボタンコード
-     * @return イベントを消費した場合は {@code true}
-     */
-    @Override
-    public boolean buttonUp(Controller controller, int buttonCode) {
-        ControllerMod.LOG.info("Button UP: {} on {}", buttonCode, controller.getName());
-        inputHandler.updateButton(buttonCode, false);
-        return false;
-    }
-
-    /**
-     * {@inheritDoc}
-     *
-     * <p>
-     * 軸の値が変化した時に呼び出される
-     *
-     * @param controller 軸が変化したコントローラー
-     * @param axisCode   SDL2軸コード
-     * @param value      軸の値 (-1.0 〜 1.0)
-     * @return イベントを消費した場合は {@code true}
-     */
-    @Override
-    public boolean axisMoved(Controller controller, int axisCode, float value) {
-        inputHandler.updateAxis(axisCode, value);
-        return false;
-    }
-
-    /**
-     * {@inheritDoc}
-     *
-     * <p>
-     * POV (十字キー) の状態が変化した時に呼び出される
-     * 注: SDL2 GameControllerではD-Padはボタンとして扱われるため、通常は呼び出されない
-     *
-     * @param controller POVが変化したコントローラー
-     * @param povCode    POVコード
-     * @param value      POVの方向
-     * @return イベントを消費した場合は {@code true}
-     */
-    @Override
-    public boolean povMoved(Controller controller, int povCode, PovDirection value) {
-        if (value != PovDirection.center) {
-            ControllerMod.LOG.info("POV {}: {} on {}", povCode, value, controller.getName());
-        }
-        return false;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public boolean xSliderMoved(Controller controller, int sliderCode, boolean value) {
-        return false;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public boolean ySliderMoved(Controller controller, int sliderCode, boolean value) {
-        return false;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public boolean accelerometerMoved(Controller controller, int accelerometerCode, Vector3 value) {
-        return false;
-    }
 }
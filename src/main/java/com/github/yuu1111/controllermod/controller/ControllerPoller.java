@@ -0,0 +1,301 @@
+package com.github.yuu1111.controllermod.controller;
+
+import java.util.concurrent.locks.LockSupport;
+
+import com.badlogic.gdx.controllers.Controller;
+import com.badlogic.gdx.controllers.ControllerListener;
+import com.badlogic.gdx.controllers.PovDirection;
+import com.badlogic.gdx.math.Vector3;
+import com.github.yuu1111.controllermod.ControllerMod;
+import com.github.yuu1111.controllermod.config.ControllerConfig;
+import com.github.yuu1111.controllermod.constants.SDL2;
+
+import uk.co.electronstudio.sdl2gdx.SDL2ControllerManager;
+
+/**
+ * コントローラーの状態を専用スレッドで読み込むポーラー
+ *
+ * <p>
+ * SDL2の初期化とポーリングはすべてこのスレッドで行う。
+ * {@link ControllerConfig#pollRate} の周期で {@link SDL2ControllerManager#pollState()} を呼び出し、
+ * リスナーに届いたボタン・軸の変化を発生時刻付きで {@link ControllerEventRing} に書き込む。
+ * クライアントスレッドは {@link InputHandler#drainEvents(ControllerEventRing)} で読み出す。
+ *
+ * <p>
+ * クライアントスレッドが止まっている間 (ワールドの読み込み中など) にリングが満杯になった場合は、
+ * 空きができた時点で全ボタン・全軸の現在の状態を書き込み直し、状態がずれたままにならないようにする
+ */
+final class ControllerPoller implements Runnable, ControllerListener {
+
+    /** ボタン数 (範囲外のボタンコードは捨てる) */
+    private static final int BUTTON_COUNT = SDL2.BUTTON_MAX;
+
+    /** 軸数 (範囲外の軸コードは捨てる) */
+    private static final int AXIS_COUNT = SDL2.AXIS_MAX;
+
+    /** イベントの書き込み先 */
+    private final ControllerEventRing ring;
+
+    /** ポーリングを続けるか */
+    private volatile boolean running = true;
+
+    /** SDL2の初期化に成功したか */
+    private volatile boolean initialized = false;
+
+    /** ポーリングスレッド */
+    private Thread thread;
+
+    // 現在の状態 (ポーリングスレッドのみ、状態の書き込み直し用)
+    private long buttons = 0;
+    private final float[] axes = new float[AXIS_COUNT];
+
+    /** リングが満杯でイベントを捨てたか */
+    private boolean overflowed = false;
+
+    /**
+     * コンストラクタ
+     *
+     * @param ring イベントの書き込み先
+     */
+    ControllerPoller(ControllerEventRing ring) {
+        this.ring = ring;
+    }
+
+    /**
+     * ポーリングスレッドを開始する
+     */
+    void start() {
+        thread = new Thread(this, "ControllerMod Poller");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * ポーリングスレッドを停止する
+     *
+     * <p>
+     * SDL2はポーリングスレッドで閉じるため、停止を待ってから戻る
+     */
+    void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * SDL2の初期化に成功したかを返す
+     *
+     * @return 初期化済みの場合は {@code true}
+     */
+    boolean isInitialized() {
+        return initialized;
+    }
+
+    @Override
+    public void run() {
+        SDL2ControllerManager controllerManager;
+        try {
+            controllerManager = new SDL2ControllerManager();
+            controllerManager.addListenerAndRunForConnectedControllers(this);
+            initialized = true;
+            ControllerMod.LOG.info("SDL2 Controller system initialized (polling at {} Hz)", ControllerConfig.pollRate);
+        } catch (Exception e) {
+            ControllerMod.LOG.error("Failed to initialize SDL2 controller system", e);
+            return;
+        }
+
+        long next = System.nanoTime();
+        try {
+            while (running) {
+                try {
+                    controllerManager.pollState();
+                } catch (Exception e) {
+                    ControllerMod.LOG.error("Error polling controller state", e);
+                }
+                if (overflowed) {
+                    resync();
+                }
+
+                // 周期は設定の変更に追従する。処理が遅れた場合は遅れを取り戻そうとせず次の周期から数える
+                next += 1_000_000_000L / ControllerConfig.pollRate;
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(this, wait);
+                } else {
+                    next = System.nanoTime();
+                }
+            }
+        } finally {
+            initialized = false;
+            controllerManager.close();
+            ControllerMod.LOG.info("SDL2 Controller system shut down");
+        }
+    }
+
+    /**
+     * イベントをリングに書き込む
+     */
+    private void push(int type, int code, float value) {
+        if (!ring.offer(type, code, value, System.nanoTime())) {
+            overflowed = true;
+        }
+    }
+
+    /**
+     * 満杯で捨てたイベントの代わりに、全ボタン・全軸の現在の状態を書き込み直す
+     */
+    private void resync() {
+        if (ring.remaining() < BUTTON_COUNT + AXIS_COUNT) {
+            return;
+        }
+        overflowed = false;
+        long now = System.nanoTime();
+        for (int i = 0; i < BUTTON_COUNT; i++) {
+            boolean down = (buttons & 1L << i) != 0;
+            ring.offer(down ? ControllerEventRing.BUTTON_DOWN : ControllerEventRing.BUTTON_UP, i, 0, now);
+        }
+        for (int i = 0; i < AXIS_COUNT; i++) {
+            ring.offer(ControllerEventRing.AXIS, i, axes[i], now);
+        }
+        ControllerMod.LOG.warn("Controller event ring overflowed, resynchronized state");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * コントローラーが接続された時に呼び出される
+     *
+     * @param controller 接続されたコントローラー
+     */
+    @Override
+    public void connected(Controller controller) {
+        ControllerMod.LOG.info("Controller connected: {}", controller.getName());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * コントローラーが切断された時に呼び出される
+     *
+     * @param controller 切断されたコントローラー
+     */
+    @Override
+    public void disconnected(Controller controller) {
+        ControllerMod.LOG.info("Controller disconnected: {}", controller.getName());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * ボタンが押された時に呼び出される
+     *
+     * @param controller ボタンが押されたコントローラー
+     * @param buttonCode SDL2ボタンコード
+     * @return イベントを消費した場合は {@code true}
+     */
+    @Override
+    public boolean buttonDown(Controller controller, int buttonCode) {
+        ControllerMod.LOG.debug("Button DOWN: {} on {}", buttonCode, controller.getName());
+        if (buttonCode >= 0 && buttonCode < BUTTON_COUNT) {
+            buttons |= 1L << buttonCode;
+            push(ControllerEventRing.BUTTON_DOWN, buttonCode, 0);
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * ボタンが離された時に呼び出される
+     *
+     * @param controller ボタンが離されたコントローラー
+     * @param buttonCode SDL2ボタンコード
+     * @return イベントを消費した場合は {@code true}
+     */
+    @Override
+    public boolean buttonUp(Controller controller, int buttonCode) {
+        ControllerMod.LOG.debug("Button UP: {} on {}", buttonCode, controller.getName());
+        if (buttonCode >= 0 && buttonCode < BUTTON_COUNT) {
+            buttons &= ~(1L << buttonCode);
+            push(ControllerEventRing.BUTTON_UP, buttonCode, 0);
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * 軸の値が変化した時に呼び出される
+     *
+     * @param controller 軸が変化したコントローラー
+     * @param axisCode   SDL2軸コード
+     * @param value      軸の値 (-1.0 〜 1.0)
+     * @return イベントを消費した場合は {@code true}
+     */
+    @Override
+    public boolean axisMoved(Controller controller, int axisCode, float value) {
+        if (axisCode >= 0 && axisCode < AXIS_COUNT) {
+            axes[axisCode] = value;
+            push(ControllerEventRing.AXIS, axisCode, value);
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * POV (十字キー) の状態が変化した時に呼び出される
+     * 注: SDL2 GameControllerではD-Padはボタンとして扱われるため、通常は呼び出されない
+     *
+     * @param controller POVが変化したコントローラー
+     * @param povCode    POVコード
+     * @param value      POVの方向
+     * @return イベントを消費した場合は {@code true}
+     */
+    @Override
+    public boolean povMoved(Controller controller, int povCode, PovDirection value) {
+        if (value != PovDirection.center) {
+            ControllerMod.LOG.info("POV {}: {} on {}", povCode, value, controller.getName());
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean xSliderMoved(Controller controller, int sliderCode, boolean value) {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean ySliderMoved(Controller controller, int sliderCode, boolean value) {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean accelerometerMoved(Controller controller, int accelerometerCode, Vector3 value) {
+        return false;
+    }
+}
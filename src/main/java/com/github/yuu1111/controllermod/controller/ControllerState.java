@@ -0,0 +1,203 @@
+package com.github.yuu1111.controllermod.controller;
+
+/**
+ * コントローラーの入力状態
+ *
+ * <p>
+ * ボタンとトリガー (閾値を超えているか) を物理入力の番号のビットとして {@code long} に持ち、
+ * 軸の値は軸コードで引く配列に持つ。前回のtick以降に押された・離された入力もビットマスクで持つため、
+ * 押した瞬間・離した瞬間の判定や変化した入力の列挙はビット演算で済む。
+ *
+ * <p>
+ * tickの間に押して離した入力も押された回数と押された扱いが次のtickまで残る。
+ * {@link #endTick()} で数え直し、押して離した入力は解除のために次のtickでも変化した入力として扱う
+ *
+ * <p>
+ * クライアントスレッドからのみ呼び出すこと
+ */
+final class ControllerState {
+
+    /** 物理入力の最大数 ({@code long} のビット数) */
+    static final int MAX_INPUTS = Long.SIZE;
+
+    /** 物理入力の数 */
+    private final int inputCount;
+
+    /** 全ての物理入力のビットマスク */
+    private final long allInputs;
+
+    /** 押されている物理入力 */
+    private long down = 0;
+
+    /** 前回のtick以降に押された物理入力 */
+    private long pressed = 0;
+
+    /** 前回のtick以降に離された物理入力 */
+    private long released = 0;
+
+    /** 前回のtickで押されていた扱いを解除する物理入力 (tickの間に押して離した入力) */
+    private long carried = 0;
+
+    /** 前回のtick以降に物理入力が押された回数 */
+    private final int[] pressCounts;
+
+    /** 物理入力が最後に押された時刻 ({@link System#nanoTime()}、ポーラーが検出した時刻) */
+    private final long[] pressNanos;
+
+    /** 軸の値 (軸コードで引く) */
+    private final float[] axes;
+
+    /**
+     * コンストラクタ
+     *
+     * @param inputCount 物理入力 (ボタン・トリガー) の数 ({@link #MAX_INPUTS} まで)
+     * @param axisCount  軸の数
+     */
+    ControllerState(int inputCount, int axisCount) {
+        if (inputCount > MAX_INPUTS) {
+            throw new IllegalArgumentException("Too many inputs: " + inputCount);
+        }
+        this.inputCount = inputCount;
+        allInputs = inputCount == MAX_INPUTS ? -1L : (1L << inputCount) - 1;
+        pressCounts = new int[inputCount];
+        pressNanos = new long[inputCount];
+        axes = new float[axisCount];
+    }
+
+    /**
+     * 物理入力の押されている状態を更新する
+     *
+     * <p>
+     * 離された状態から押された状態に変わった場合のみ押された回数に数える
+     *
+     * @param input  物理入力の番号 (範囲外の場合は無視する)
+     * @param isDown 押されているかどうか
+     * @param time   変化した時刻 ({@link System#nanoTime()})
+     */
+    void setDown(int input, boolean isDown, long time) {
+        if (input < 0 || input >= inputCount) {
+            return;
+        }
+        long bit = 1L << input;
+        if (((down & bit) != 0) == isDown) {
+            return;
+        }
+        down ^= bit;
+        if (isDown) {
+            pressed |= bit;
+            pressCounts[input]++;
+            pressNanos[input] = time;
+        } else {
+            released |= bit;
+        }
+    }
+
+    /**
+     * 物理入力が押されているか、前回のtick以降に押されたかを返す
+     *
+     * @param input 物理入力の番号
+     */
+    boolean isDown(int input) {
+        return ((down | pressed) & 1L << input) != 0;
+    }
+
+    /**
+     * いずれかの物理入力が押されているかを返す
+     */
+    boolean isAnyDown() {
+        return down != 0;
+    }
+
+    /**
+     * 前回のtick以降に押された物理入力を返す
+     *
+     * @return ビットマスク
+     */
+    long getJustPressed() {
+        return pressed;
+    }
+
+    /**
+     * 前回のtick以降に離された物理入力を返す
+     *
+     * @return ビットマスク
+     */
+    long getJustReleased() {
+        return released;
+    }
+
+    /**
+     * 前回のtick以降に状態が変わった物理入力を返す
+     *
+     * <p>
+     * 前回のtickの間に押して離した入力も含む
+     *
+     * @return ビットマスク
+     */
+    long getChanged() {
+        return pressed | released | carried;
+    }
+
+    /**
+     * 全ての物理入力のビットマスクを返す
+     */
+    long getAllInputs() {
+        return allInputs;
+    }
+
+    /**
+     * 前回のtick以降に物理入力が押された回数を返す
+     *
+     * @param input 物理入力の番号
+     */
+    int getPressCount(int input) {
+        return pressCounts[input];
+    }
+
+    /**
+     * 物理入力が最後に押された時刻を返す
+     *
+     * @param input 物理入力の番号
+     * @return {@link System#nanoTime()} の値 (押されたことが無い場合は0)
+     */
+    long getPressNanos(int input) {
+        return pressNanos[input];
+    }
+
+    /**
+     * 前回のtick以降の押された・離された入力と押された回数をリセットする
+     */
+    void endTick() {
+        // 押された扱いのまま離された入力は、次のtickで解除する
+        carried = pressed & ~down;
+        long bits = pressed;
+        while (bits != 0) {
+            pressCounts[Long.numberOfTrailingZeros(bits)] = 0;
+            bits &= bits - 1;
+        }
+        pressed = 0;
+        released = 0;
+    }
+
+    /**
+     * 軸の値を設定する
+     *
+     * @param axis  軸コード (範囲外の場合は無視する)
+     * @param value 軸の値
+     */
+    void setAxis(int axis, float value) {
+        if (axis >= 0 && axis < axes.length) {
+            axes[axis] = value;
+        }
+    }
+
+    /**
+     * 軸の値を返す
+     *
+     * @param axis 軸コード
+     * @return 軸の値 (範囲外の場合は0)
+     */
+    float getAxis(int axis) {
+        return axis >= 0 && axis < axes.length ? axes[axis] : 0;
+    }
+}
@@ -3,10 +3,11 @@ package com.github.yuu1111.controllermod.controller;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiChat;
 import net.minecraft.client.gui.GuiIngameMenu;
-import net.minecraft.client.settings.KeyBinding;
+import net.minecraft.client.settings.GameSettings;
 
 import com.github.yuu1111.controllermod.config.ControllerConfig;
 import com.github.yuu1111.controllermod.constants.SDL2;
+import com.github.yuu1111.controllermod.gui.cursor.InputSourceArbiter;
 import com.github.yuu1111.controllermod.gui.cursor.VirtualCursor;
 import com.github.yuu1111.controllermod.gui.cursor.VirtualCursorManager;
 import com.github.yuu1111.controllermod.input.Keybind;
@@ -27,21 +28,53 @@ import com.github.yuu1111.controllermod.input.KeybindRegistry;
  */
 public class InputHandler {
 
-    // 軸の状態
-    private float leftStickX = 0;
-    private float leftStickY = 0;
-    private float rightStickX = 0;
-    private float rightStickY = 0;
-    private float triggerLeft = 0;
-    private float triggerRight = 0;
+    /** 1フレームあたりの最大経過時間 (秒) 停止からの復帰時に視点が一度に大きく回らないようにする */
+    private static final float MAX_LOOK_DT = 0.1f;
+
+    // KeyBindingOutputのスロット
+    private static final int OUT_FORWARD = 0;
+    private static final int OUT_BACK = 1;
+    private static final int OUT_LEFT = 2;
+    private static final int OUT_RIGHT = 3;
+    private static final int OUT_JUMP = 4;
+    private static final int OUT_SNEAK = 5;
+    private static final int OUT_SPRINT = 6;
+    private static final int OUT_ATTACK = 7;
+    private static final int OUT_USE_ITEM = 8;
+    private static final int OUT_PLAYER_LIST = 9;
+    private static final int OUT_DROP = 10;
+    private static final int OUT_COUNT = 11;
+
+    // バインド表のアクション (OP_HOLD + スロット はKeyBindingOutputへの出力)
+    private static final int OP_INVENTORY = 0;
+    private static final int OP_PAUSE = 1;
+    private static final int OP_TOGGLE_PERSPECTIVE = 2;
+    private static final int OP_OPEN_CHAT = 3;
+    private static final int OP_HOTBAR_NEXT = 4;
+    private static final int OP_HOTBAR_PREV = 5;
+    private static final int OP_HOLD = 16;
 
-    // ボタンの状態
-    private boolean[] buttonStates = new boolean[16];
-    private boolean[] prevButtonStates = new boolean[16];
+    /**
+     * ボタン・トリガー・軸の状態
+     * ボタンはSDL2のボタン数、トリガーは閾値を超えているかを物理入力として持つ
+     */
+    private final ControllerState state = new ControllerState(BindingTable.INPUT_COUNT, SDL2.AXIS_MAX);
+
+    /** 前回のtickでゲーム内の操作としてKeyBindingに出力したか */
+    private boolean outputsApplied = false;
+
+    /** 物理入力ごとのアクションの表 */
+    private final BindingTable bindingTable = new BindingTable();
+
+    /** 前回視点を回した時刻 (0 = 視点操作をしていない) */
+    private long lastLookNanos = 0;
 
     /** バーチャルカーソル (GUI操作用) */
     private final VirtualCursor virtualCursor;
 
+    /** KeyBindingへの出力 */
+    private final KeyBindingOutput output = new KeyBindingOutput(OUT_COUNT);
+
     /**
      * コンストラクタ
      *
@@ -52,6 +85,26 @@ public class InputHandler {
         virtualCursor = new VirtualCursor();
         // MixinからアクセスできるようにVirtualCursorManagerに登録
         VirtualCursorManager.setInstance(virtualCursor);
+        registerActions();
+    }
+
+    /**
+     * バインドごとのアクションをバインド表に登録する
+     */
+    private void registerActions() {
+        bindingTable.register(KeybindRegistry.JUMP, OP_HOLD + OUT_JUMP);
+        bindingTable.register(KeybindRegistry.SNEAK, OP_HOLD + OUT_SNEAK);
+        bindingTable.register(KeybindRegistry.SPRINT, OP_HOLD + OUT_SPRINT);
+        bindingTable.register(KeybindRegistry.ATTACK, OP_HOLD + OUT_ATTACK);
+        bindingTable.register(KeybindRegistry.USE_ITEM, OP_HOLD + OUT_USE_ITEM);
+        bindingTable.register(KeybindRegistry.PLAYER_LIST, OP_HOLD + OUT_PLAYER_LIST);
+        bindingTable.register(KeybindRegistry.DROP_ITEM, OP_HOLD + OUT_DROP);
+        bindingTable.register(KeybindRegistry.INVENTORY, OP_INVENTORY);
+        bindingTable.register(KeybindRegistry.PAUSE, OP_PAUSE);
+        bindingTable.register(KeybindRegistry.TOGGLE_PERSPECTIVE, OP_TOGGLE_PERSPECTIVE);
+        bindingTable.register(KeybindRegistry.OPEN_CHAT, OP_OPEN_CHAT);
+        bindingTable.register(KeybindRegistry.HOTBAR_NEXT, OP_HOTBAR_NEXT);
+        bindingTable.register(KeybindRegistry.HOTBAR_PREV, OP_HOTBAR_PREV);
     }
 
     /**
@@ -59,30 +112,28 @@ public class InputHandler {
      *
      * <p>
      * スティック軸にはデッドゾーン処理を適用する。
-     * トリガー軸はそのまま保存する。
+     * トリガー軸はそのまま保存し、閾値を超えているかを物理入力の状態として記録するため、
+     * トリガーもボタンと同じく押した瞬間・離した瞬間を判定できる。
      *
      * @param axisCode SDL2軸コード ({@link SDL2#AXIS_LEFT_X} など)
      * @param value    軸の値 (-1.0 〜 1.0)
+     * @param time     変化した時刻 ({@link System#nanoTime()})
      */
-    public void updateAxis(int axisCode, float value) {
+    public void updateAxis(int axisCode, float value, long time) {
         switch (axisCode) {
             case SDL2.AXIS_LEFT_X:
-                leftStickX = applyDeadzone(value);
-                break;
             case SDL2.AXIS_LEFT_Y:
-                leftStickY = applyDeadzone(value);
-                break;
             case SDL2.AXIS_RIGHT_X:
-                rightStickX = applyDeadzone(value);
-                break;
             case SDL2.AXIS_RIGHT_Y:
-                rightStickY = applyDeadzone(value);
+                state.setAxis(axisCode, applyDeadzone(value));
                 break;
             case SDL2.AXIS_TRIGGER_LEFT:
-                triggerLeft = value;
+                state.setAxis(axisCode, value);
+                state.setDown(BindingTable.INPUT_TRIGGER_LEFT, value > ControllerConfig.triggerThreshold, time);
                 break;
             case SDL2.AXIS_TRIGGER_RIGHT:
-                triggerRight = value;
+                state.setAxis(axisCode, value);
+                state.setDown(BindingTable.INPUT_TRIGGER_RIGHT, value > ControllerConfig.triggerThreshold, time);
                 break;
         }
     }
@@ -90,12 +141,43 @@ public class InputHandler {
     /**
      * ボタンの状態を更新する
      *
+     * <p>
+     * 離された状態から押された状態に変わった場合のみ押された回数に数える
+     *
      * @param buttonCode SDL2ボタンコード
      * @param pressed    ボタンが押されているかどうか
+     * @param time       変化した時刻 ({@link System#nanoTime()})
      */
-    public void updateButton(int buttonCode, boolean pressed) {
-        if (buttonCode >= 0 && buttonCode < buttonStates.length) {
-            buttonStates[buttonCode] = pressed;
+    public void updateButton(int buttonCode, boolean pressed, long time) {
+        if (buttonCode < 0 || buttonCode >= BindingTable.BUTTON_COUNT) {
+            return;
+        }
+        state.setDown(buttonCode, pressed, time);
+    }
+
+    /**
+     * ポーラーが書き込んだ入力イベントを読み出して状態に反映する
+     *
+     * <p>
+     * 読み出しの間に押して離されたボタンも、押された回数は {@link ControllerState} に残る
+     *
+     * @param ring イベントのリング
+     */
+    void drainEvents(ControllerEventRing ring) {
+        while (ring.peek()) {
+            int code = ring.getCode();
+            switch (ring.getType()) {
+                case ControllerEventRing.BUTTON_DOWN:
+                    updateButton(code, true, ring.getNanos());
+                    break;
+                case ControllerEventRing.BUTTON_UP:
+                    updateButton(code, false, ring.getNanos());
+                    break;
+                case ControllerEventRing.AXIS:
+                    updateAxis(code, ring.getValue(), ring.getNanos());
+                    break;
+            }
+            ring.advance();
         }
     }
 
@@ -106,178 +188,249 @@ public class InputHandler {
      * 毎ティック呼び出され、以下の処理を行う:
      * <ol>
      * <li>左スティック → 移動 (WASD)</li>
-     * <li>右スティック → 視点操作</li>
-     * <li>各種ボタン → 対応するアクション</li>
+     * <li>前回のtick以降に変化したボタン・トリガー → 割り当てられたアクション</li>
      * </ol>
      *
      * <p>
+     * 右スティックによる視点操作は描画フレームごとに {@link #updateLookFrame()} で行う。
      * GUIが開いている場合はバーチャルカーソルモードに切り替える。
      */
     public void applyMovement() {
         Minecraft mc = Minecraft.getMinecraft();
 
+        // 出力先やバインドの割り当てが変わった場合は、全ての入力を出力し直す
+        boolean rebound = bindOutputs(mc);
+        if (bindingTable.rebuildIfChanged() || rebound) {
+            output.releaseAll();
+            outputsApplied = false;
+        }
+
         // GUI が開いている場合はバーチャルカーソルで操作
         if (mc.currentScreen != null) {
-            releaseAllMovement();
-            releaseAllButtons();
+            output.releaseAll();
+            outputsApplied = false;
 
-            // バーチャルカーソルを更新
-            virtualCursor.update(
-                leftStickX,
-                leftStickY,
-                isBindingPressed(KeybindRegistry.GUI_SELECT),
-                isBindingPressed(KeybindRegistry.GUI_BACK));
+            // バーチャルカーソルを更新 (移動・クリックは描画フレームごとに updateGuiFrame() で行う)
+            virtualCursor.update();
 
             // GUI でも一部のボタンは処理する
-            applyGuiButtons(mc);
+            if (mc.thePlayer != null) {
+                dispatch(mc, state.getChanged(), true);
+            }
 
-            // 前フレームのボタン状態を保存
-            System.arraycopy(buttonStates, 0, prevButtonStates, 0, buttonStates.length);
+            // 押された回数はtickごとに数え直す
+            state.endTick();
             return;
         }
 
         if (mc.thePlayer == null) {
-            releaseAllMovement();
-            releaseAllButtons();
+            output.releaseAll();
+            outputsApplied = false;
+            state.endTick();
             return;
         }
 
+        // コントローラーでGUIを開いた場合にコントローラーモードで始めるため、操作を記録する
+        if (hasAnyInput()) {
+            InputSourceArbiter.onControllerActivity();
+        }
+
         // 左スティック → 移動
-        setKeyState(mc.gameSettings.keyBindForward, leftStickY < -0.1f);
-        setKeyState(mc.gameSettings.keyBindBack, leftStickY > 0.1f);
-        setKeyState(mc.gameSettings.keyBindLeft, leftStickX < -0.1f);
-        setKeyState(mc.gameSettings.keyBindRight, leftStickX > 0.1f);
+        float leftStickX = state.getAxis(SDL2.AXIS_LEFT_X);
+        float leftStickY = state.getAxis(SDL2.AXIS_LEFT_Y);
+        output.setHeld(OUT_FORWARD, leftStickY < -0.1f);
+        output.setHeld(OUT_BACK, leftStickY > 0.1f);
+        output.setHeld(OUT_LEFT, leftStickX < -0.1f);
+        output.setHeld(OUT_RIGHT, leftStickX > 0.1f);
+
+        // ボタン → 各種アクション (GUIを閉じた直後などは、押したままのボタンも出力し直す)
+        dispatch(mc, outputsApplied ? state.getChanged() : state.getAllInputs(), false);
+        outputsApplied = true;
+        output.reassertHeld();
+
+        // 押された回数はtickごとに数え直す
+        state.endTick();
+    }
 
-        // 右スティック → 視点操作
-        applyLook(mc);
+    /**
+     * 右スティックによる視点操作を1フレーム分適用する
+     *
+     * <p>
+     * 描画の前に毎フレーム呼び出される。前フレームからの経過時間で回転量を積算するため、
+     * 視点はtickレートやフレームレートに依存しない速度で滑らかに回る
+     */
+    public void updateLookFrame() {
+        Minecraft mc = Minecraft.getMinecraft();
+        if (mc.currentScreen != null || mc.thePlayer == null || mc.isGamePaused()) {
+            lastLookNanos = 0;
+            return;
+        }
+
+        // 視点操作を再開した直後のフレームは回さない
+        long now = System.nanoTime();
+        float dt = lastLookNanos != 0 ? Math.min((now - lastLookNanos) / 1_000_000_000f, MAX_LOOK_DT) : 0;
+        lastLookNanos = now;
 
-        // ボタン → 各種アクション
-        applyButtons(mc);
+        if (dt > 0) {
+            applyLook(mc, dt);
+        }
+    }
 
-        // 前フレームのボタン状態を保存
-        System.arraycopy(buttonStates, 0, prevButtonStates, 0, buttonStates.length);
+    /**
+     * GUI操作を1フレーム分適用する
+     *
+     * <p>
+     * GUI描画の前に毎フレーム呼び出され、スティックとボタンの状態をバーチャルカーソルに渡す。
+     * tickを待たずに処理するため、カーソル移動とクリックが描画フレーム単位で反映される
+     */
+    public void updateGuiFrame() {
+        int dpadX = (isBindingPressed(KeybindRegistry.GUI_RIGHT) ? 1 : 0)
+            - (isBindingPressed(KeybindRegistry.GUI_LEFT) ? 1 : 0);
+        int dpadY = (isBindingPressed(KeybindRegistry.GUI_DOWN) ? 1 : 0)
+            - (isBindingPressed(KeybindRegistry.GUI_UP) ? 1 : 0);
+        virtualCursor.updateFrame(
+            state.getAxis(SDL2.AXIS_LEFT_X),
+            state.getAxis(SDL2.AXIS_LEFT_Y),
+            state.getAxis(SDL2.AXIS_RIGHT_Y),
+            dpadX,
+            dpadY,
+            isBindingPressed(KeybindRegistry.GUI_SELECT),
+            isBindingPressed(KeybindRegistry.GUI_BACK));
+    }
+
+    /**
+     * スティック・トリガー・ボタンのいずれかが操作されているかを返す
+     */
+    private boolean hasAnyInput() {
+        for (int axis = SDL2.AXIS_LEFT_X; axis <= SDL2.AXIS_RIGHT_Y; axis++) {
+            if (state.getAxis(axis) != 0) {
+                return true;
+            }
+        }
+        // tickの間に押して離したボタンも操作とみなす
+        return state.isAnyDown() || state.getJustPressed() != 0;
     }
 
     /**
      * バインドが押されているかチェック
      */
     private boolean isBindingPressed(Keybind binding) {
-        if (binding.isUnbound()) {
-            return false;
-        }
-        int button = binding.getButton();
-        // トリガーの場合
-        if (button == SDL2.TRIGGER_LEFT) {
-            return triggerLeft > ControllerConfig.triggerThreshold;
-        }
-        if (button == SDL2.TRIGGER_RIGHT) {
-            return triggerRight > ControllerConfig.triggerThreshold;
-        }
-        // 通常ボタン
-        if (button >= 0 && button < buttonStates.length) {
-            return buttonStates[button];
-        }
-        return false;
+        int input = BindingTable.inputOf(binding);
+        return input >= 0 && state.isDown(input);
     }
 
     /**
-     * バインドが今フレームで押されたか (JustPressed)
+     * バインドが最後に押された時刻を返す
+     *
+     * <p>
+     * ポーラーがボタンの押下を検出した時刻のため、入力遅延の計測に使用できる
+     *
+     * @param binding バインド
+     * @return {@link System#nanoTime()} の値 (押されたことが無い場合は0)
      */
-    private boolean isBindingJustPressed(Keybind binding) {
-        if (binding.isUnbound()) {
-            return false;
-        }
-        int button = binding.getButton();
-        // トリガーの場合
-        if (button == SDL2.TRIGGER_LEFT) {
-            // トリガーのJustPressedは非対応 (ホールドのみ)
-            return false;
-        }
-        if (button == SDL2.TRIGGER_RIGHT) {
-            return false;
-        }
-        // 通常ボタン
-        if (button >= 0 && button < buttonStates.length) {
-            return buttonStates[button] && !prevButtonStates[button];
-        }
-        return false;
+    public long getLastPressNanos(Keybind binding) {
+        int input = BindingTable.inputOf(binding);
+        return input >= 0 ? state.getPressNanos(input) : 0;
     }
 
     /**
-     * ボタン入力をMinecraftアクションにマッピングする
+     * 出力先のKeyBindingを登録する
+     *
+     * <p>
+     * 登録済みのインスタンスと同じであれば何もしない
      *
      * @param mc Minecraftインスタンス
+     * @return 出力先が変わった場合は {@code true}
      */
-    private void applyButtons(Minecraft mc) {
-        // ジャンプ
-        setKeyState(mc.gameSettings.keyBindJump, isBindingPressed(KeybindRegistry.JUMP));
-
-        // スニーク (ホールド)
-        setKeyState(mc.gameSettings.keyBindSneak, isBindingPressed(KeybindRegistry.SNEAK));
-
-        // インベントリ (押した瞬間のみ)
-        if (isBindingJustPressed(KeybindRegistry.INVENTORY)) {
-            mc.displayGuiScreen(new net.minecraft.client.gui.inventory.GuiInventory(mc.thePlayer));
-        }
-
-        // ダッシュ
-        setKeyState(mc.gameSettings.keyBindSprint, isBindingPressed(KeybindRegistry.SPRINT));
-
-        // 攻撃/破壊
-        setKeyState(mc.gameSettings.keyBindAttack, isBindingPressed(KeybindRegistry.ATTACK));
-
-        // 使用/設置
-        setKeyState(mc.gameSettings.keyBindUseItem, isBindingPressed(KeybindRegistry.USE_ITEM));
-
-        // 次のホットバースロット
-        if (isBindingJustPressed(KeybindRegistry.HOTBAR_NEXT)) {
-            scrollHotbar(mc, 1);
-        }
-
-        // 前のホットバースロット
-        if (isBindingJustPressed(KeybindRegistry.HOTBAR_PREV)) {
-            scrollHotbar(mc, -1);
-        }
-
-        // ポーズメニュー
-        if (isBindingJustPressed(KeybindRegistry.PAUSE)) {
-            mc.displayGuiScreen(new GuiIngameMenu());
-        }
-
-        // 視点切替
-        if (isBindingJustPressed(KeybindRegistry.TOGGLE_PERSPECTIVE)) {
-            toggleViewPerspective(mc);
-        }
-
-        // プレイヤーリスト (Tabホールド)
-        setKeyState(mc.gameSettings.keyBindPlayerList, isBindingPressed(KeybindRegistry.PLAYER_LIST));
-
-        // アイテムドロップ
-        setKeyState(mc.gameSettings.keyBindDrop, isBindingPressed(KeybindRegistry.DROP_ITEM));
+    private boolean bindOutputs(Minecraft mc) {
+        GameSettings settings = mc.gameSettings;
+        boolean changed = output.bind(OUT_FORWARD, settings.keyBindForward);
+        changed |= output.bind(OUT_BACK, settings.keyBindBack);
+        changed |= output.bind(OUT_LEFT, settings.keyBindLeft);
+        changed |= output.bind(OUT_RIGHT, settings.keyBindRight);
+        changed |= output.bind(OUT_JUMP, settings.keyBindJump);
+        changed |= output.bind(OUT_SNEAK, settings.keyBindSneak);
+        changed |= output.bind(OUT_SPRINT, settings.keyBindSprint);
+        changed |= output.bind(OUT_ATTACK, settings.keyBindAttack);
+        changed |= output.bind(OUT_USE_ITEM, settings.keyBindUseItem);
+        changed |= output.bind(OUT_PLAYER_LIST, settings.keyBindPlayerList);
+        changed |= output.bind(OUT_DROP, settings.keyBindDrop);
+        return changed;
+    }
 
-        // チャット画面を開く
-        if (isBindingJustPressed(KeybindRegistry.OPEN_CHAT)) {
-            mc.displayGuiScreen(new GuiChat());
+    /**
+     * 物理入力に割り当てられたアクションを実行する
+     *
+     * @param mc     Minecraftインスタンス
+     * @param inputs 処理する物理入力 (ビットマスク、通常は前回のtick以降に変化した入力)
+     * @param inGui  GUI表示中の場合は {@code true} (GUIでも有効なアクションのみ実行する)
+     */
+    private void dispatch(Minecraft mc, long inputs, boolean inGui) {
+        while (inputs != 0) {
+            int input = Long.numberOfTrailingZeros(inputs);
+            inputs &= inputs - 1;
+
+            boolean down = state.isDown(input);
+            int presses = state.getPressCount(input);
+            for (int i = bindingTable.start(input), end = bindingTable.end(input); i < end; i++) {
+                runAction(mc, bindingTable.getOp(i), down, presses, inGui);
+            }
         }
     }
 
     /**
-     * GUI画面でのボタン入力を処理する
+     * アクションを1つ実行する
      *
-     * @param mc Minecraftインスタンス
+     * @param mc      Minecraftインスタンス
+     * @param op      アクション
+     * @param down    物理入力が押されているか
+     * @param presses 前回のtick以降に物理入力が押された回数
+     * @param inGui   GUI表示中の場合は {@code true}
      */
-    private void applyGuiButtons(Minecraft mc) {
-        // ポーズ: GUI を閉じる
-        if (isBindingJustPressed(KeybindRegistry.PAUSE)) {
-            mc.thePlayer.closeScreen();
+    private void runAction(Minecraft mc, int op, boolean down, int presses, boolean inGui) {
+        // 押している間有効なアクション → KeyBindingに出力
+        if (op >= OP_HOLD) {
+            if (!inGui) {
+                output.apply(op - OP_HOLD, down, presses);
+            }
+            return;
         }
 
-        // ホットバー切り替え (インベントリ等で有用)
-        if (isBindingJustPressed(KeybindRegistry.HOTBAR_NEXT) && mc.thePlayer != null) {
-            scrollHotbar(mc, 1);
+        // 以降は押した瞬間のみ
+        if (presses == 0) {
+            return;
         }
-        if (isBindingJustPressed(KeybindRegistry.HOTBAR_PREV) && mc.thePlayer != null) {
-            scrollHotbar(mc, -1);
+        switch (op) {
+            case OP_INVENTORY:
+                if (!inGui) {
+                    mc.displayGuiScreen(new net.minecraft.client.gui.inventory.GuiInventory(mc.thePlayer));
+                }
+                break;
+            case OP_PAUSE:
+                // GUI表示中は GUI を閉じる
+                if (inGui) {
+                    mc.thePlayer.closeScreen();
+                } else {
+                    mc.displayGuiScreen(new GuiIngameMenu());
+                }
+                break;
+            case OP_TOGGLE_PERSPECTIVE:
+                if (!inGui) {
+                    toggleViewPerspective(mc);
+                }
+                break;
+            case OP_OPEN_CHAT:
+                if (!inGui) {
+                    mc.displayGuiScreen(new GuiChat());
+                }
+                break;
+            case OP_HOTBAR_NEXT:
+                // ホットバースロットの切り替え (押した回数だけ進める、インベントリ等でも有用)
+                scrollHotbar(mc, presses);
+                break;
+            case OP_HOTBAR_PREV:
+                scrollHotbar(mc, -presses);
+                break;
         }
     }
 
@@ -299,85 +452,57 @@ public class InputHandler {
     /**
      * ホットバーのスロットをスクロールする
      *
-     * @param mc        Minecraftインスタンス
-     * @param direction スクロール方向 (正: 次へ、負: 前へ)
+     * @param mc    Minecraftインスタンス
+     * @param steps スクロール量 (正: 次へ、負: 前へ、端で反対側に回り込む)
      */
-    private void scrollHotbar(Minecraft mc, int direction) {
-        int newSlot = mc.thePlayer.inventory.currentItem + direction;
+    private void scrollHotbar(Minecraft mc, int steps) {
+        if (steps == 0) {
+            return;
+        }
+        int newSlot = (mc.thePlayer.inventory.currentItem + steps) % 9;
         if (newSlot < 0) {
-            newSlot = 8;
-        } else if (newSlot > 8) {
-            newSlot = 0;
+            newSlot += 9;
         }
         mc.thePlayer.inventory.currentItem = newSlot;
     }
 
     /**
-     * 全てのボタン入力を解放する
+     * 右スティックによる視点操作を適用する
      *
      * <p>
-     * GUI表示時などに呼び出され、押しっぱなし状態を解除する
-     */
-    private void releaseAllButtons() {
-        Minecraft mc = Minecraft.getMinecraft();
-        setKeyState(mc.gameSettings.keyBindJump, false);
-        setKeyState(mc.gameSettings.keyBindSneak, false);
-        setKeyState(mc.gameSettings.keyBindSprint, false);
-        setKeyState(mc.gameSettings.keyBindAttack, false);
-        setKeyState(mc.gameSettings.keyBindUseItem, false);
-    }
-
-    /**
-     * 右スティックによる視点操作を適用する
+     * マウスによる視点操作 (Entity.setAngles()) と同じく、前tickの角度も同じだけ回す。
+     * 描画時の補間は前tickとの差分で行われるため、tickの途中で回しても補間がぶれない
      *
      * @param mc Minecraftインスタンス
+     * @param dt 前フレームからの経過時間 (秒)
      */
-    private void applyLook(Minecraft mc) {
-        if (mc.thePlayer == null) {
-            return;
-        }
+    private void applyLook(Minecraft mc, float dt) {
+        float degrees = ControllerConfig.lookSpeedPerSecond * dt;
 
-        float sensitivity = ControllerConfig.lookSensitivity;
+        float rightStickX = state.getAxis(SDL2.AXIS_RIGHT_X);
+        float rightStickY = state.getAxis(SDL2.AXIS_RIGHT_Y);
 
         // X軸 → Yaw (左右回転)
         if (rightStickX != 0) {
-            mc.thePlayer.rotationYaw += rightStickX * sensitivity;
+            float yawDelta = rightStickX * degrees;
+            mc.thePlayer.rotationYaw += yawDelta;
+            mc.thePlayer.prevRotationYaw += yawDelta;
         }
 
         // Y軸 → Pitch (上下回転)
         if (rightStickY != 0) {
-            float pitchDelta = rightStickY * sensitivity;
+            float pitchDelta = rightStickY * degrees;
             // Y軸反転設定
             if (ControllerConfig.invertY) {
                 pitchDelta = -pitchDelta;
             }
-            mc.thePlayer.rotationPitch += pitchDelta;
+            float prevPitch = mc.thePlayer.rotationPitch;
             // -90° 〜 90° に制限
-            mc.thePlayer.rotationPitch = Math.max(-90.0f, Math.min(90.0f, mc.thePlayer.rotationPitch));
+            mc.thePlayer.rotationPitch = Math.max(-90.0f, Math.min(90.0f, prevPitch + pitchDelta));
+            mc.thePlayer.prevRotationPitch += mc.thePlayer.rotationPitch - prevPitch;
         }
     }
 
-    /**
-     * 全ての移動入力を解放する
-     */
-    private void releaseAllMovement() {
-        Minecraft mc = Minecraft.getMinecraft();
-        setKeyState(mc.gameSettings.keyBindForward, false);
-        setKeyState(mc.gameSettings.keyBindBack, false);
-        setKeyState(mc.gameSettings.keyBindLeft, false);
-        setKeyState(mc.gameSettings.keyBindRight, false);
-    }
-
-    /**
-     * キーバインドの状態を設定する
-     *
-     * @param keyBinding 対象のキーバインド
-     * @param pressed    押下状態
-     */
-    private void setKeyState(KeyBinding keyBinding, boolean pressed) {
-        KeyBinding.setKeyBindState(keyBinding.getKeyCode(), pressed);
-    }
-
     /**
      * デッドゾーンを適用する
      *
@@ -402,7 +527,7 @@ public class InputHandler {
      * @return X軸の値 (-1.0 〜 1.0、デッドゾーン適用済み)
      */
     public float getLeftStickX() {
-        return leftStickX;
+        return state.getAxis(SDL2.AXIS_LEFT_X);
     }
 
     /**
@@ -411,7 +536,16 @@ public class InputHandler {
      * @return Y軸の値 (-1.0 〜 1.0、デッドゾーン適用済み)
      */
     public float getLeftStickY() {
-        return leftStickY;
+        return state.getAxis(SDL2.AXIS_LEFT_Y);
+    }
+
+    /**
+     * 右スティックのY軸の値を取得する
+     *
+     * @return Y軸の値 (-1.0 〜 1.0、デッドゾーン適用済み)
+     */
+    public float getRightStickY() {
+        return state.getAxis(SDL2.AXIS_RIGHT_Y);
     }
 
     /**
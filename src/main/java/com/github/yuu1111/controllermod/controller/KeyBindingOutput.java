@@ -0,0 +1,159 @@
+package com.github.yuu1111.controllermod.controller;
+
+import net.minecraft.client.settings.KeyBinding;
+
+import org.lwjgl.input.Keyboard;
+import org.lwjgl.input.Mouse;
+
+import com.github.yuu1111.controllermod.mixins.KeyBindingAccessor;
+
+/**
+ * コントローラーの入力をKeyBindingに出力する
+ *
+ * <p>
+ * 押されている状態 (KeyBinding.getIsKeyPressed()) と押された回数 (KeyBinding.isPressed()) を分けて書き込む。
+ * キーボードの押下でKeyBinding.onTick() が数えるのと同じく、ボタンが押されるたびに押下回数を1つ増やすため、
+ * isPressed() で処理する攻撃・設置・アイテムを捨てるなどの操作や他MODのキーバインドが押した回数だけ動く。
+ *
+ * <p>
+ * 出力先のKeyBindingは番号 (スロット) で登録しておき、インスタンスに直接書き込む。
+ * コントローラーが最後に出力した状態をスロットごとに覚えておき、変わった場合のみ書き込むため、
+ * 入力が変わらないtickではKeyBindingに触れない。
+ * コントローラーが離した場合も、同じキーがキーボード・マウスで押されていれば押された状態のままにする。
+ * キーボード側が離したことでコントローラーの押下が消えた場合は押された状態に戻す
+ *
+ * <p>
+ * クライアントスレッドからのみ呼び出すこと
+ */
+final class KeyBindingOutput {
+
+    /** 出力先のキーバインド */
+    private final KeyBinding[] bindings;
+
+    /** コントローラーが最後に出力した押されている状態 */
+    private final boolean[] asserted;
+
+    /**
+     * コンストラクタ
+     *
+     * @param size スロット数
+     */
+    KeyBindingOutput(int size) {
+        bindings = new KeyBinding[size];
+        asserted = new boolean[size];
+    }
+
+    /**
+     * スロットに出力先のキーバインドを登録する
+     *
+     * <p>
+     * 別のキーバインドに差し替える場合は、前のキーバインドへの出力を先に解除する
+     *
+     * @param slot       スロット
+     * @param keyBinding 出力先のキーバインド
+     * @return 出力先が変わった場合は {@code true}
+     */
+    boolean bind(int slot, KeyBinding keyBinding) {
+        if (bindings[slot] == keyBinding) {
+            return false;
+        }
+        if (bindings[slot] != null) {
+            setHeld(slot, false);
+        }
+        bindings[slot] = keyBinding;
+        asserted[slot] = false;
+        return true;
+    }
+
+    /**
+     * キーバインドの押されている状態を出力する
+     *
+     * @param slot スロット
+     * @param held 押されている場合は {@code true}
+     */
+    void setHeld(int slot, boolean held) {
+        KeyBindingAccessor accessor = (KeyBindingAccessor) bindings[slot];
+        if (asserted[slot] == held) {
+            // キーボード側の解放で消えた押下だけを戻す
+            if (held && !accessor.controllermod$isPressed()) {
+                accessor.controllermod$setPressed(true);
+            }
+            return;
+        }
+        asserted[slot] = held;
+        if (held) {
+            accessor.controllermod$setPressed(true);
+        } else if (!isPhysicallyDown(bindings[slot].getKeyCode())) {
+            accessor.controllermod$setPressed(false);
+        }
+    }
+
+    /**
+     * キーバインドの押下回数を増やす
+     *
+     * @param slot    スロット
+     * @param presses 前回のtick以降に押された回数
+     */
+    void press(int slot, int presses) {
+        if (presses <= 0) {
+            return;
+        }
+        KeyBindingAccessor accessor = (KeyBindingAccessor) bindings[slot];
+        accessor.controllermod$setPressTime(accessor.controllermod$getPressTime() + presses);
+    }
+
+    /**
+     * キーバインドの押されている状態と押下回数を出力する
+     *
+     * @param slot    スロット
+     * @param held    押されている場合は {@code true}
+     * @param presses 前回のtick以降に押された回数
+     */
+    void apply(int slot, boolean held, int presses) {
+        press(slot, presses);
+        setHeld(slot, held);
+    }
+
+    /**
+     * コントローラーが押している全てのキーバインドについて、キーボード側の解放で消えた押下を戻す
+     *
+     * <p>
+     * 入力が変わらないtickでも、押したままのキーバインドの状態を保つために呼び出す
+     */
+    void reassertHeld() {
+        for (int i = 0; i < bindings.length; i++) {
+            if (asserted[i]) {
+                setHeld(i, true);
+            }
+        }
+    }
+
+    /**
+     * コントローラーが押している全てのキーバインドを離す
+     *
+     * <p>
+     * 押していないキーバインドには触れない
+     */
+    void releaseAll() {
+        for (int i = 0; i < bindings.length; i++) {
+            if (asserted[i]) {
+                setHeld(i, false);
+            }
+        }
+    }
+
+    /**
+     * キーコードのキー・マウスボタンが実際に押されているかを返す
+     *
+     * @param keyCode キーコード (負の値はマウスボタン + 100)
+     */
+    private static boolean isPhysicallyDown(int keyCode) {
+        if (keyCode > 0) {
+            return keyCode < Keyboard.KEYBOARD_SIZE && Keyboard.isKeyDown(keyCode);
+        }
+        if (keyCode < 0) {
+            return Mouse.isButtonDown(keyCode + 100);
+        }
+        return false;
+    }
+}
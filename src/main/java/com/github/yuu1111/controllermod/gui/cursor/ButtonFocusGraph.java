@@ -0,0 +1,271 @@
+package com.github.yuu1111.controllermod.gui.cursor;
+
+import java.util.List;
+
+import net.minecraft.client.gui.Gui;
+import net.minecraft.client.gui.GuiButton;
+import net.minecraft.client.gui.GuiScreen;
+
+import com.github.yuu1111.controllermod.mixins.GuiButtonAccessor;
+import com.github.yuu1111.controllermod.mixins.GuiScreenAccessor;
+
+/**
+ * GUI画面のボタンの方向グラフ
+ *
+ * <p>
+ * 画面の初期化時に {@code buttonList} の表示中のボタンから、各ボタンの上下左右の移動先を求めておく。
+ * 十字キーによるフォーカス移動は配列を引くだけになる。
+ * ボタンの一覧 (リスト・並び・位置・表示状態) が変わった場合のみ構築し直す。
+ *
+ * <p>
+ * クライアントスレッドからのみ呼び出すこと
+ */
+final class ButtonFocusGraph {
+
+    /** フォーカス枠の色 (ARGB) */
+    private static final int HIGHLIGHT_COLOR = 0xFFFFFF55;
+
+    /** 構築対象の画面 (null = 未構築) */
+    private GuiScreen screen;
+
+    /** 構築時のボタンの一覧 */
+    private List<?> buttonList;
+
+    /** 構築時のボタンの一覧の要素数 */
+    private int buttonListSize;
+
+    /** 登録されたボタン数 */
+    private int count = 0;
+
+    /** 登録されたボタン */
+    private GuiButton[] buttons = new GuiButton[0];
+
+    // 構築時のボタンの位置 (変更の検出用)
+    private int[] buttonX = new int[0];
+    private int[] buttonY = new int[0];
+
+    // ボタンの中心座標 (GUI座標系)
+    private float[] centerX = new float[0];
+    private float[] centerY = new float[0];
+
+    /** 方向キーでの移動先 (ボタン番号 * {@link Direction#COUNT} + 方向、-1 = 無し) */
+    private int[] neighbours = new int[0];
+
+    /** フォーカス中のボタン番号 (-1 = フォーカス無し) */
+    private int focused = -1;
+
+    /**
+     * 画面のボタンを登録し直す
+     *
+     * <p>
+     * フォーカス中だった場合は、直前のフォーカス位置に最も近いボタンにフォーカスを移す
+     *
+     * @param gui 画面
+     */
+    void build(GuiScreen gui) {
+        boolean hadFocus = focused >= 0;
+        float lastX = hadFocus ? centerX[focused] : 0;
+        float lastY = hadFocus ? centerY[focused] : 0;
+
+        List<?> list = ((GuiScreenAccessor) gui).controllermod$getButtonList();
+        screen = gui;
+        buttonList = list;
+        buttonListSize = list.size();
+        focused = -1;
+
+        if (buttons.length < buttonListSize) {
+            buttons = new GuiButton[buttonListSize];
+            buttonX = new int[buttonListSize];
+            buttonY = new int[buttonListSize];
+            centerX = new float[buttonListSize];
+            centerY = new float[buttonListSize];
+            neighbours = new int[buttonListSize * Direction.COUNT];
+        }
+
+        count = 0;
+        for (Object o : list) {
+            if (!(o instanceof GuiButton) || !((GuiButton) o).visible) {
+                continue;
+            }
+            GuiButton button = (GuiButton) o;
+            buttons[count] = button;
+            buttonX[count] = button.xPosition;
+            buttonY[count] = button.yPosition;
+            centerX[count] = button.xPosition + button.getButtonWidth() / 2f;
+            centerY[count] = button.yPosition + ((GuiButtonAccessor) button).controllermod$getHeight() / 2f;
+            count++;
+        }
+        // 古いボタンへの参照を残さない
+        for (int i = count; i < buttons.length && buttons[i] != null; i++) {
+            buttons[i] = null;
+        }
+
+        for (int i = 0; i < count; i++) {
+            for (int dir = 0; dir < Direction.COUNT; dir++) {
+                neighbours[i * Direction.COUNT + dir] = findInDirection(centerX[i], centerY[i], dir);
+            }
+        }
+
+        if (hadFocus) {
+            focused = nearest(lastX, lastY);
+        }
+    }
+
+    /**
+     * 登録を破棄する
+     */
+    void clear() {
+        screen = null;
+        buttonList = null;
+        focused = -1;
+        for (int i = 0; i < count; i++) {
+            buttons[i] = null;
+        }
+        count = 0;
+    }
+
+    /**
+     * 指定の画面の現在のボタンで構築済みかを返す
+     *
+     * <p>
+     * ボタンの一覧を走査するため、フォーカス移動時のみ呼び出す
+     *
+     * @param gui 画面
+     * @return 構築済みの場合は {@code true}
+     */
+    boolean isBuiltFor(GuiScreen gui) {
+        List<?> list = ((GuiScreenAccessor) gui).controllermod$getButtonList();
+        if (gui != screen || list != buttonList || list.size() != buttonListSize) {
+            return false;
+        }
+        int k = 0;
+        for (Object o : list) {
+            if (!(o instanceof GuiButton) || !((GuiButton) o).visible) {
+                continue;
+            }
+            GuiButton button = (GuiButton) o;
+            if (k >= count || buttons[k] != button || buttonX[k] != button.xPosition
+                || buttonY[k] != button.yPosition) {
+                return false;
+            }
+            k++;
+        }
+        return k == count;
+    }
+
+    /**
+     * フォーカスを移動する
+     *
+     * <p>
+     * フォーカスが無い場合は、指定の位置に最も近いボタンにフォーカスする
+     *
+     * @param dir 方向 ({@link Direction})
+     * @param x   フォーカスが無い場合の基準のX座標 (GUI座標系)
+     * @param y   フォーカスが無い場合の基準のY座標 (GUI座標系)
+     * @return フォーカスがある場合は {@code true}
+     */
+    boolean move(int dir, float x, float y) {
+        if (focused < 0) {
+            focused = nearest(x, y);
+        } else {
+            int next = neighbours[focused * Direction.COUNT + dir];
+            if (next >= 0) {
+                focused = next;
+            }
+        }
+        return focused >= 0;
+    }
+
+    /**
+     * フォーカスがあるかを返す
+     *
+     * @return フォーカスがある場合は {@code true}
+     */
+    boolean hasFocus() {
+        return focused >= 0;
+    }
+
+    /**
+     * フォーカスを外す
+     */
+    void clearFocus() {
+        focused = -1;
+    }
+
+    /**
+     * フォーカス中のボタンの中心のX座標を返す
+     *
+     * @return X座標 (GUI座標系)
+     */
+    float getFocusX() {
+        return centerX[focused];
+    }
+
+    /**
+     * フォーカス中のボタンの中心のY座標を返す
+     *
+     * @return Y座標 (GUI座標系)
+     */
+    float getFocusY() {
+        return centerY[focused];
+    }
+
+    /**
+     * フォーカス中のボタンに枠を描画する
+     */
+    void renderHighlight() {
+        if (focused < 0) {
+            return;
+        }
+        GuiButton button = buttons[focused];
+        if (!button.visible) {
+            return;
+        }
+        int x0 = button.xPosition - 1;
+        int y0 = button.yPosition - 1;
+        int x1 = button.xPosition + button.getButtonWidth() + 1;
+        int y1 = button.yPosition + ((GuiButtonAccessor) button).controllermod$getHeight() + 1;
+        Gui.drawRect(x0, y0, x1, y0 + 1, HIGHLIGHT_COLOR);
+        Gui.drawRect(x0, y1 - 1, x1, y1, HIGHLIGHT_COLOR);
+        Gui.drawRect(x0, y0 + 1, x0 + 1, y1 - 1, HIGHLIGHT_COLOR);
+        Gui.drawRect(x1 - 1, y0 + 1, x1, y1 - 1, HIGHLIGHT_COLOR);
+    }
+
+    /**
+     * 指定の位置に最も近いボタンを返す
+     *
+     * @return ボタン番号 (ボタンが無い場合は-1)
+     */
+    private int nearest(float x, float y) {
+        float best = Float.MAX_VALUE;
+        int result = -1;
+        for (int i = 0; i < count; i++) {
+            float dx = centerX[i] - x;
+            float dy = centerY[i] - y;
+            float d = dx * dx + dy * dy;
+            if (d < best) {
+                best = d;
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 指定の位置から見て指定の方向にあるボタンを返す
+     *
+     * @return ボタン番号 (無い場合は-1)
+     */
+    private int findInDirection(float x, float y, int dir) {
+        float best = Float.MAX_VALUE;
+        int result = -1;
+        for (int i = 0; i < count; i++) {
+            float score = Direction.score(dir, centerX[i] - x, centerY[i] - y);
+            if (score >= 0 && score < best) {
+                best = score;
+                result = i;
+            }
+        }
+        return result;
+    }
+}
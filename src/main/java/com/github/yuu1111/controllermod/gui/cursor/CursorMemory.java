@@ -0,0 +1,288 @@
+package com.github.yuu1111.controllermod.gui.cursor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiScreen;
+import net.minecraft.client.gui.inventory.GuiContainer;
+import net.minecraft.entity.player.InventoryPlayer;
+import net.minecraft.inventory.Slot;
+
+import com.github.yuu1111.controllermod.ControllerMod;
+import com.github.yuu1111.controllermod.config.ControllerConfig;
+import com.github.yuu1111.controllermod.constants.Reference;
+import com.github.yuu1111.controllermod.mixins.GuiContainerAccessor;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+/**
+ * 画面ごとのカーソル位置の記憶
+ *
+ * <p>
+ * GUIを閉じたときのカーソル位置を画面のクラス (設定によりコンテナの識別子も) をキーに記憶し、
+ * 同じ画面を開き直したときに復元する。件数は {@link ControllerConfig#cursorMemorySize} までで、
+ * 超えた場合は最も長く使われていない画面から忘れる (LRU)。
+ *
+ * <p>
+ * コンテナ画面ではカーソルが乗っていたスロットの番号とGUI左上からの位置を、
+ * それ以外の画面では画面サイズに対する割合を記憶するため、ウィンドウサイズが変わっても復元できる。
+ *
+ * <p>
+ * {@link ControllerConfig#cursorMemoryPersist} が有効な場合はJSON形式で設定ディレクトリに保存する。
+ * 保存はGUIを閉じたときに一定間隔でまとめて行い、終了時に残りを書き出す。
+ * 記憶の読み書きはクライアントスレッドのみで行うこと
+ */
+public final class CursorMemory {
+
+    /** Gson インスタンス */
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting()
+        .create();
+
+    /** ファイルへの保存の最小間隔 (ミリ秒) */
+    private static final long SAVE_INTERVAL_MILLIS = 30_000;
+
+    /** 記憶したカーソル位置 (アクセス順、先頭が最も長く使われていない) */
+    private static final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > ControllerConfig.cursorMemorySize;
+        }
+    };
+
+    /** 保存ファイル (null = 未初期化) */
+    private static File memoryFile;
+
+    /** 保存していない変更があるか */
+    private static boolean dirty = false;
+
+    /** 最後にファイルへ保存した時刻 ({@link Minecraft#getSystemTime()}) */
+    private static long lastSaveTime = 0;
+
+    private CursorMemory() {
+        // ユーティリティクラス
+    }
+
+    /**
+     * 保存ファイルを初期化し、保存が有効であれば読み込む
+     *
+     * @param configDir Minecraftの設定ディレクトリ
+     */
+    public static void init(File configDir) {
+        memoryFile = new File(configDir, Reference.CONFIG_FILE_CURSOR_MEMORY);
+        if (ControllerConfig.cursorMemoryPersist) {
+            load();
+        }
+
+        // 終了時に残りの変更を書き出す (終了処理中はクライアントスレッドが記憶を変更しない)
+        Runtime.getRuntime()
+            .addShutdownHook(new Thread(CursorMemory::save, "ControllerMod cursor memory"));
+    }
+
+    /**
+     * 画面を閉じるときのカーソル位置を記憶する
+     *
+     * @param screen       閉じる画面
+     * @param x            カーソルのX座標 (GUI座標系)
+     * @param y            カーソルのY座標 (GUI座標系)
+     * @param screenWidth  画面の幅 (GUI座標系)
+     * @param screenHeight 画面の高さ (GUI座標系)
+     */
+    static void remember(GuiScreen screen, float x, float y, int screenWidth, int screenHeight) {
+        if (ControllerConfig.cursorMemorySize <= 0) {
+            return;
+        }
+
+        Entry entry = new Entry();
+        if (screen instanceof GuiContainer) {
+            GuiContainer gc = (GuiContainer) screen;
+            GuiContainerAccessor accessor = (GuiContainerAccessor) gc;
+            int left = accessor.controllermod$getGuiLeft();
+            int top = accessor.controllermod$getGuiTop();
+            entry.x = x - left;
+            entry.y = y - top;
+            entry.slot = slotAt(gc, x - left, y - top);
+        } else {
+            entry.x = x / screenWidth;
+            entry.y = y / screenHeight;
+            entry.slot = -1;
+        }
+        entries.put(keyOf(screen), entry);
+        dirty = true;
+
+        long now = Minecraft.getSystemTime();
+        if (ControllerConfig.cursorMemoryPersist && now - lastSaveTime >= SAVE_INTERVAL_MILLIS) {
+            lastSaveTime = now;
+            save();
+        }
+    }
+
+    /**
+     * 画面を開いたときに記憶したカーソル位置を取得する
+     *
+     * <p>
+     * スロットを記憶している場合は、そのスロットが現在も有効であればスロットの中心を返す
+     *
+     * @param screen       開いた画面
+     * @param screenWidth  画面の幅 (GUI座標系)
+     * @param screenHeight 画面の高さ (GUI座標系)
+     * @param out          復元する位置の格納先 (X, Y の2要素、GUI座標系)
+     * @return 記憶がある場合は {@code true}
+     */
+    static boolean recall(GuiScreen screen, int screenWidth, int screenHeight, float[] out) {
+        if (ControllerConfig.cursorMemorySize <= 0) {
+            return false;
+        }
+        Entry entry = entries.get(keyOf(screen));
+        if (entry == null) {
+            return false;
+        }
+
+        if (screen instanceof GuiContainer) {
+            GuiContainer gc = (GuiContainer) screen;
+            GuiContainerAccessor accessor = (GuiContainerAccessor) gc;
+            int left = accessor.controllermod$getGuiLeft();
+            int top = accessor.controllermod$getGuiTop();
+            List<?> slots = gc.inventorySlots.inventorySlots;
+            if (entry.slot >= 0 && entry.slot < slots.size() && ((Slot) slots.get(entry.slot)).func_111238_b()) {
+                Slot slot = (Slot) slots.get(entry.slot);
+                out[0] = left + slot.xDisplayPosition + SlotIndex.SLOT_HALF;
+                out[1] = top + slot.yDisplayPosition + SlotIndex.SLOT_HALF;
+            } else {
+                out[0] = left + entry.x;
+                out[1] = top + entry.y;
+            }
+        } else {
+            out[0] = entry.x * screenWidth;
+            out[1] = entry.y * screenHeight;
+        }
+        return true;
+    }
+
+    /**
+     * 記憶のキーを返す
+     *
+     * <p>
+     * 画面のクラス名。コンテナごとに記憶する場合は、コンテナのクラス名・スロット数・
+     * プレイヤー以外のインベントリの名前を加える
+     */
+    private static String keyOf(GuiScreen screen) {
+        String key = screen.getClass()
+            .getName();
+        if (!ControllerConfig.cursorMemoryPerContainer || !(screen instanceof GuiContainer)) {
+            return key;
+        }
+
+        List<?> slots = ((GuiContainer) screen).inventorySlots.inventorySlots;
+        String inventory = "";
+        for (Object o : slots) {
+            Slot slot = (Slot) o;
+            if (slot.inventory != null && !(slot.inventory instanceof InventoryPlayer)) {
+                inventory = slot.inventory.getInventoryName();
+                break;
+            }
+        }
+        return key + "|"
+            + ((GuiContainer) screen).inventorySlots.getClass()
+                .getName()
+            + "|"
+            + slots.size()
+            + "|"
+            + inventory;
+    }
+
+    /**
+     * 指定の位置にあるスロットの番号を返す
+     *
+     * @param x GUI左上からのX座標
+     * @param y GUI左上からのY座標
+     * @return {@code inventorySlots} 内の位置 ({@link Slot#slotNumber} ではない、スロット上でない場合は-1)
+     */
+    private static int slotAt(GuiContainer gc, float x, float y) {
+        List<?> slots = gc.inventorySlots.inventorySlots;
+        for (int i = 0; i < slots.size(); i++) {
+            Slot slot = (Slot) slots.get(i);
+            if (slot.func_111238_b() && x >= slot.xDisplayPosition - 1
+                && x < slot.xDisplayPosition + SlotIndex.SLOT_HALF * 2 + 1
+                && y >= slot.yDisplayPosition - 1
+                && y < slot.yDisplayPosition + SlotIndex.SLOT_HALF * 2 + 1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 記憶をファイルから読み込む
+     */
+    private static void load() {
+        if (memoryFile == null || !memoryFile.exists()) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(memoryFile.toPath(), StandardCharsets.UTF_8)) {
+            MemoryData data = GSON.fromJson(reader, MemoryData.class);
+            if (data != null && data.entries != null) {
+                // ファイルは古い順に並んでいるため、そのまま入れればアクセス順も復元される
+                for (Map.Entry<String, Entry> e : data.entries.entrySet()) {
+                    if (e.getValue() != null) {
+                        entries.put(e.getKey(), e.getValue());
+                    }
+                }
+                ControllerMod.LOG.info("Loaded {} cursor position(s)", entries.size());
+            }
+        } catch (IOException | JsonParseException e) {
+            ControllerMod.LOG.error("Failed to load cursor memory", e);
+        }
+    }
+
+    /**
+     * 保存していない変更があればファイルに書き出す
+     */
+    private static void save() {
+        if (!dirty || memoryFile == null || !ControllerConfig.cursorMemoryPersist) {
+            return;
+        }
+
+        MemoryData data = new MemoryData();
+        data.entries = new LinkedHashMap<>(entries);
+        try (BufferedWriter writer = Files.newBufferedWriter(memoryFile.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(data, writer);
+            dirty = false;
+        } catch (IOException e) {
+            ControllerMod.LOG.error("Failed to save cursor memory", e);
+        }
+    }
+
+    /**
+     * 記憶したカーソル位置
+     */
+    private static class Entry {
+
+        /** コンテナ画面ではGUI左上からのX座標、それ以外では画面の幅に対する割合 */
+        float x;
+
+        /** コンテナ画面ではGUI左上からのY座標、それ以外では画面の高さに対する割合 */
+        float y;
+
+        /** カーソルが乗っていたスロットの {@code inventorySlots} 内の位置 (-1 = 無し) */
+        int slot;
+    }
+
+    /**
+     * JSON保存用データクラス
+     */
+    private static class MemoryData {
+
+        Map<String, Entry> entries;
+    }
+}
@@ -0,0 +1,242 @@
+package com.github.yuu1111.controllermod.gui.cursor;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.GLAllocation;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.resources.IReloadableResourceManager;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.client.resources.IResourceManagerReloadListener;
+import net.minecraft.util.ResourceLocation;
+
+import org.lwjgl.opengl.GL11;
+
+import com.github.yuu1111.controllermod.constants.Reference;
+
+/**
+ * バーチャルカーソルの描画
+ *
+ * <p>
+ * カーソルの形状は初回の描画時にディスプレイリストへ一度だけ構築し、
+ * 毎フレームは平行移動してリストを呼び出すだけにする。
+ * GLの状態は問い合わせずにGuiScreenの描画後の状態 (テクスチャ有効、ブレンド無効) を前提とし、
+ * カーソルに必要な状態と異なるものだけを切り替え、描画後にその切り替えだけを元に戻す。
+ *
+ * <p>
+ * リソースパックに {@code controllermod:textures/gui/cursor.png} がある場合は、
+ * そのアトラスのスプライトを描画する。アトラスは16x16のスプライトを横に並べたもので、
+ * 左から通常時・押下時の順。スプライトの中心がクリック位置になる。
+ * アトラスが無い場合は十字カーソルを描画する。
+ *
+ * <p>
+ * クライアントスレッド (GLコンテキストのあるスレッド) からのみ呼び出すこと
+ */
+final class CursorRenderer implements IResourceManagerReloadListener {
+
+    /** カーソルのアトラス */
+    private static final ResourceLocation ATLAS = new ResourceLocation(
+        Reference.MOD_ID,
+        Reference.TEXTURE_CURSOR_ATLAS);
+
+    /** GuiScreenの描画後にテクスチャが有効か */
+    private static final boolean GUI_TEXTURE_ENABLED = true;
+
+    /** GuiScreenの描画後にブレンドが有効か (ブレンド関数はGUIの標準の SRC_ALPHA, ONE_MINUS_SRC_ALPHA) */
+    private static final boolean GUI_BLEND_ENABLED = false;
+
+    /** 描画時のZ座標 (GUIの上に描画) */
+    private static final float Z_LEVEL = 300;
+
+    /** 十字カーソルの腕の長さ */
+    private static final int CROSS_SIZE = 8;
+
+    /** スプライトの一辺 (ピクセル) */
+    private static final int SPRITE_SIZE = 16;
+
+    /** アトラスに並ぶスプライトの数 */
+    private static final int SPRITE_COUNT = 2;
+
+    // ディスプレイリスト (先頭からのオフセット)
+    private static final int LIST_CROSS = 0;
+    private static final int LIST_CROSS_PRESSED = 1;
+    private static final int LIST_SPRITE = 2;
+    private static final int LIST_SPRITE_PRESSED = 3;
+    private static final int LIST_COUNT = 4;
+
+    /** ディスプレイリストの先頭番号 (0 = 未構築) */
+    private int baseList = 0;
+
+    /** リソースのリロードを監視しているか */
+    private boolean listening = false;
+
+    /** アトラスの有無を確認済みか (リソースのリロードで再確認する) */
+    private boolean atlasChecked = false;
+
+    /** アトラスがあるか */
+    private boolean atlasAvailable = false;
+
+    /**
+     * カーソルを描画する
+     *
+     * @param x       X座標 (GUI座標系)
+     * @param y       Y座標 (GUI座標系)
+     * @param pressed マウスボタンが押されているか
+     */
+    void render(float x, float y, boolean pressed) {
+        if (baseList == 0) {
+            buildLists();
+        }
+        if (!atlasChecked) {
+            checkAtlas();
+        }
+
+        int list;
+        boolean textureToggled = atlasAvailable != GUI_TEXTURE_ENABLED;
+        if (atlasAvailable) {
+            Minecraft.getMinecraft()
+                .getTextureManager()
+                .bindTexture(ATLAS);
+            list = pressed ? LIST_SPRITE_PRESSED : LIST_SPRITE;
+        } else {
+            list = pressed ? LIST_CROSS_PRESSED : LIST_CROSS;
+        }
+        if (textureToggled) {
+            setEnabled(GL11.GL_TEXTURE_2D, atlasAvailable);
+        }
+        if (!GUI_BLEND_ENABLED) {
+            GL11.glEnable(GL11.GL_BLEND);
+        }
+
+        // 行列はスタックに積まずに平行移動を打ち消す
+        GL11.glTranslatef(x, y, Z_LEVEL);
+        GL11.glCallList(baseList + list);
+        GL11.glTranslatef(-x, -y, -Z_LEVEL);
+
+        // 頂点色で描画した後の現在色は不定のため、GUIの既定値 (白) に戻す
+        GL11.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
+        if (!GUI_BLEND_ENABLED) {
+            GL11.glDisable(GL11.GL_BLEND);
+        }
+        if (textureToggled) {
+            setEnabled(GL11.GL_TEXTURE_2D, GUI_TEXTURE_ENABLED);
+        }
+    }
+
+    /**
+     * GLの機能を有効化・無効化する
+     */
+    private static void setEnabled(int cap, boolean enabled) {
+        if (enabled) {
+            GL11.glEnable(cap);
+        } else {
+            GL11.glDisable(cap);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * リソースパックが変わった場合に備えてアトラスの有無を再確認する
+     */
+    @Override
+    public void onResourceManagerReload(IResourceManager resourceManager) {
+        atlasChecked = false;
+    }
+
+    /**
+     * カーソルの形状をディスプレイリストに構築する
+     */
+    private void buildLists() {
+        baseList = GLAllocation.generateDisplayLists(LIST_COUNT);
+
+        // 十字カーソル (白、押下時は黄色)
+        compileCross(baseList + LIST_CROSS, 1.0f);
+        compileCross(baseList + LIST_CROSS_PRESSED, 0.0f);
+
+        // スプライト
+        compileSprite(baseList + LIST_SPRITE, 0);
+        compileSprite(baseList + LIST_SPRITE_PRESSED, 1);
+    }
+
+    /**
+     * 十字カーソルを1回の描画にまとめてディスプレイリストに記録する
+     *
+     * @param list ディスプレイリスト
+     * @param blue 線の青成分 (押下時は0で黄色になる)
+     */
+    private static void compileCross(int list, float blue) {
+        int size = CROSS_SIZE;
+        Tessellator tessellator = Tessellator.instance;
+
+        GL11.glNewList(list, GL11.GL_COMPILE);
+        tessellator.startDrawingQuads();
+
+        // 横線・縦線
+        tessellator.setColorRGBA_F(1.0f, 1.0f, blue, 0.9f);
+        addQuad(tessellator, -size, -1, size, 1);
+        addQuad(tessellator, -1, -size, 1, size);
+
+        // 中心点 (黒)
+        tessellator.setColorRGBA_F(0.0f, 0.0f, 0.0f, 1.0f);
+        addQuad(tessellator, -2, -2, 2, 2);
+
+        tessellator.draw();
+        GL11.glEndList();
+    }
+
+    /**
+     * アトラスのスプライトをディスプレイリストに記録する
+     *
+     * @param list  ディスプレイリスト
+     * @param index アトラス内のスプライト番号
+     */
+    private static void compileSprite(int list, int index) {
+        float half = SPRITE_SIZE / 2f;
+        double u0 = (double) index / SPRITE_COUNT;
+        double u1 = (double) (index + 1) / SPRITE_COUNT;
+        Tessellator tessellator = Tessellator.instance;
+
+        GL11.glNewList(list, GL11.GL_COMPILE);
+        tessellator.startDrawingQuads();
+        tessellator.setColorRGBA_F(1.0f, 1.0f, 1.0f, 1.0f);
+        tessellator.addVertexWithUV(-half, half, 0, u0, 1);
+        tessellator.addVertexWithUV(half, half, 0, u1, 1);
+        tessellator.addVertexWithUV(half, -half, 0, u1, 0);
+        tessellator.addVertexWithUV(-half, -half, 0, u0, 0);
+        tessellator.draw();
+        GL11.glEndList();
+    }
+
+    /**
+     * 矩形を追加する
+     */
+    private static void addQuad(Tessellator tessellator, int x0, int y0, int x1, int y1) {
+        tessellator.addVertex(x0, y0, 0);
+        tessellator.addVertex(x0, y1, 0);
+        tessellator.addVertex(x1, y1, 0);
+        tessellator.addVertex(x1, y0, 0);
+    }
+
+    /**
+     * アトラスがリソースにあるかを確認する
+     */
+    private void checkAtlas() {
+        IResourceManager resourceManager = Minecraft.getMinecraft()
+            .getResourceManager();
+        if (!listening && resourceManager instanceof IReloadableResourceManager) {
+            ((IReloadableResourceManager) resourceManager).registerReloadListener(this);
+            listening = true;
+        }
+        atlasChecked = true;
+
+        try (InputStream in = resourceManager.getResource(ATLAS)
+            .getInputStream()) {
+            atlasAvailable = true;
+        } catch (IOException e) {
+            atlasAvailable = false;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.yuu1111.controllermod.gui.cursor;
+
+/**
+ * バーチャルカーソルの状態を1つの {@code long} に詰めたスナップショット
+ *
+ * <p>
+ * MouseHookはクライアントスレッド以外 (非同期のマップ描画など) からも呼び出されるため、
+ * カーソル位置・ボタン状態・モードを1つの値として公開する。
+ * 読み手はvolatileな {@code long} を1回読むだけで、ロック無しに一貫した状態を得られる。
+ *
+ * <p>
+ * ビット配置:
+ *
+ * <pre>
+ *  0-23  ディスプレイX座標
+ * 24-47  ディスプレイY座標 (左下原点)
+ * 48-55  押されているマウスボタン (ビットマスク, ボタン0〜7)
+ * 56     バーチャルカーソルがアクティブ (GUI表示中)
+ * 57     コントローラー入力中 (フックがバーチャルカーソルの座標を返す)
+ * </pre>
+ */
+public final class CursorSnapshot {
+
+    /** 初期状態 (カーソル非アクティブ) */
+    public static final long EMPTY = 0L;
+
+    private static final int COORD_BITS = 24;
+    private static final long COORD_MASK = (1L << COORD_BITS) - 1;
+    private static final int Y_SHIFT = COORD_BITS;
+    private static final int BUTTON_SHIFT = COORD_BITS * 2;
+    private static final int BUTTON_COUNT = 8;
+    private static final long FLAG_ACTIVE = 1L << 56;
+    private static final long FLAG_CONTROLLER_INPUT = 1L << 57;
+
+    private CursorSnapshot() {
+        // ユーティリティクラス
+    }
+
+    /**
+     * 状態を詰める
+     *
+     * @param displayX        ディスプレイX座標
+     * @param displayY        ディスプレイY座標
+     * @param buttonMask      押されているマウスボタンのビットマスク
+     * @param active          バーチャルカーソルがアクティブか
+     * @param controllerInput コントローラー入力中か
+     * @return スナップショット
+     */
+    static long pack(int displayX, int displayY, int buttonMask, boolean active, boolean controllerInput) {
+        long state = (displayX & COORD_MASK) | (displayY & COORD_MASK) << Y_SHIFT
+            | (long) (buttonMask & 0xFF) << BUTTON_SHIFT;
+        if (active) {
+            state |= FLAG_ACTIVE;
+        }
+        if (controllerInput) {
+            state |= FLAG_CONTROLLER_INPUT;
+        }
+        return state;
+    }
+
+    /**
+     * ディスプレイX座標を取り出す
+     *
+     * @param state スナップショット
+     * @return ディスプレイX座標
+     */
+    public static int getDisplayX(long state) {
+        return (int) (state & COORD_MASK);
+    }
+
+    /**
+     * ディスプレイY座標を取り出す
+     *
+     * @param state スナップショット
+     * @return ディスプレイY座標 (左下原点)
+     */
+    public static int getDisplayY(long state) {
+        return (int) (state >>> Y_SHIFT & COORD_MASK);
+    }
+
+    /**
+     * マウスボタンが押されているかを取り出す
+     *
+     * @param state  スナップショット
+     * @param button マウスボタン番号 (0=左, 1=右)
+     * @return 押されている場合は {@code true}
+     */
+    public static boolean isButtonDown(long state, int button) {
+        return button >= 0 && button < BUTTON_COUNT && (state >>> BUTTON_SHIFT + button & 1L) != 0;
+    }
+
+    /**
+     * バーチャルカーソルがアクティブかを取り出す
+     *
+     * @param state スナップショット
+     * @return アクティブな場合は {@code true}
+     */
+    public static boolean isActive(long state) {
+        return (state & FLAG_ACTIVE) != 0;
+    }
+
+    /**
+     * コントローラー入力中かを取り出す
+     *
+     * @param state スナップショット
+     * @return コントローラー入力中の場合は {@code true}
+     */
+    public static boolean isControllerInput(long state) {
+        return (state & FLAG_CONTROLLER_INPUT) != 0;
+    }
+}
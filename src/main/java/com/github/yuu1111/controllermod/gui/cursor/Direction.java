@@ -0,0 +1,79 @@
+package com.github.yuu1111.controllermod.gui.cursor;
+
+/**
+ * 十字キーによるフォーカス移動の方向
+ *
+ * <p>
+ * スロット・ボタンの移動先は、進行方向の距離と直交方向のずれ (重み付き) の和が
+ * 最小のものを選ぶ。同じ行・列にあるものは進行方向に含めない
+ */
+final class Direction {
+
+    static final int NONE = -1;
+    static final int UP = 0;
+    static final int DOWN = 1;
+    static final int LEFT = 2;
+    static final int RIGHT = 3;
+    static final int COUNT = 4;
+
+    /** 進行方向と直交するずれの重み */
+    private static final float PERPENDICULAR_WEIGHT = 2;
+
+    private Direction() {
+        // ユーティリティクラス
+    }
+
+    /**
+     * 十字キーが新たに押された方向を返す
+     *
+     * @param dpadX     十字キーの左右 (-1 = 左, 1 = 右)
+     * @param dpadY     十字キーの上下 (-1 = 上, 1 = 下)
+     * @param prevDpadX 前フレームの左右
+     * @param prevDpadY 前フレームの上下
+     * @return 方向 (新たに押されていない場合は {@link #NONE})
+     */
+    static int fromDpad(int dpadX, int dpadY, int prevDpadX, int prevDpadY) {
+        if (dpadY != 0 && dpadY != prevDpadY) {
+            return dpadY < 0 ? UP : DOWN;
+        }
+        if (dpadX != 0 && dpadX != prevDpadX) {
+            return dpadX < 0 ? LEFT : RIGHT;
+        }
+        return NONE;
+    }
+
+    /**
+     * 移動先としての評価値を返す
+     *
+     * @param dir 方向
+     * @param dx  移動先までのX方向の距離
+     * @param dy  移動先までのY方向の距離
+     * @return 評価値 (小さいほど良い、その方向に無い場合は負)
+     */
+    static float score(int dir, float dx, float dy) {
+        float forward;
+        float side;
+        switch (dir) {
+            case UP:
+                forward = -dy;
+                side = dx;
+                break;
+            case DOWN:
+                forward = dy;
+                side = dx;
+                break;
+            case LEFT:
+                forward = -dx;
+                side = dy;
+                break;
+            default:
+                forward = dx;
+                side = dy;
+                break;
+        }
+        if (forward < 1) {
+            return -1;
+        }
+        return forward + Math.abs(side) * PERPENDICULAR_WEIGHT;
+    }
+}
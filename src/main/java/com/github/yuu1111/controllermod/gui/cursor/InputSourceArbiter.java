@@ -0,0 +1,195 @@
+package com.github.yuu1111.controllermod.gui.cursor;
+
+import net.minecraft.client.Minecraft;
+
+import org.lwjgl.input.Mouse;
+
+import com.github.yuu1111.controllermod.ControllerMod;
+
+/**
+ * 入力元 (マウス・キーボード / コントローラー) の判定
+ *
+ * <p>
+ * 実マウス・キーボードのイベントはイベントループで読まれたとき (MouseHook.next() と
+ * GuiScreen.handleInput() の Keyboard.next()) に、コントローラーの入力はGUI描画フレームごとに受け取り、
+ * どちらで操作しているかを決める。
+ *
+ * <ul>
+ * <li>クリック・ホイール・キー押下、コントローラーのボタン押下: 即座に切り替える</li>
+ * <li>マウスの移動・スティックの傾き: 一定量を超え、かつもう一方の入力が途絶えている場合のみ切り替える</li>
+ * </ul>
+ *
+ * <p>
+ * 移動による切り替えにはヒステリシスを設け、両方に手を置いたままでもモードが交互に切り替わらないようにする。
+ * コントローラーモードに切り替えるとバーチャルカーソルを実マウスの位置へ、
+ * マウスの移動でマウスモードに切り替えると実マウスをバーチャルカーソルの位置へ移す。
+ *
+ * <p>
+ * クライアントスレッドからのみ呼び出すこと
+ */
+public final class InputSourceArbiter {
+
+    /** マウスモードに切り替える移動量 (ディスプレイ座標、途切れずに動かした累計) */
+    private static final int MOUSE_MOTION_THRESHOLD = 12;
+
+    /** コントローラーモードに切り替えるスティックの傾き (デッドゾーン適用後) */
+    private static final float STICK_SWITCH_THRESHOLD = 0.3f;
+
+    /** コントローラーを操作中とみなすスティックの傾き */
+    private static final float STICK_ACTIVITY_THRESHOLD = 0.05f;
+
+    /** 移動・スティックで切り替えるのに必要な、もう一方の入力が途絶えている時間 (ミリ秒) */
+    private static final long IDLE_MILLIS = 250;
+
+    /** GUIを開いたときにコントローラーモードで始める、直前のコントローラー操作からの時間 (ミリ秒) */
+    private static final long RECENT_CONTROLLER_MILLIS = 1000;
+
+    /** 最後にマウス・キーボードを操作した時刻 ({@link Minecraft#getSystemTime()}) */
+    private static long lastMouseActivity = 0;
+
+    /** 最後にコントローラーを操作した時刻 ({@link Minecraft#getSystemTime()}) */
+    private static long lastControllerActivity = 0;
+
+    /** 途切れずに動かしたマウスの移動量の累計 */
+    private static int mouseMotion = 0;
+
+    private InputSourceArbiter() {
+        // ユーティリティクラス
+    }
+
+    /**
+     * 実マウスのイベントを受け取る
+     *
+     * <p>
+     * MouseHook.next() が実マウスのイベントを読んだときに呼び出される
+     *
+     * @param button      ボタン番号 (移動のみの場合は-1)
+     * @param buttonState 押下なら {@code true}
+     * @param dx          X方向の移動量
+     * @param dy          Y方向の移動量
+     * @param dwheel      ホイールの回転量
+     */
+    public static void onMouseEvent(int button, boolean buttonState, int dx, int dy, int dwheel) {
+        long now = Minecraft.getSystemTime();
+
+        if (button >= 0 && buttonState || dwheel != 0) {
+            lastMouseActivity = now;
+            // クリックは実マウスの位置で処理させるため、実マウスは動かさない
+            switchToMouse(false);
+            return;
+        }
+        if (dx == 0 && dy == 0) {
+            return;
+        }
+
+        // 途切れた小さな動き (机の振動など) は累計しない
+        if (now - lastMouseActivity > IDLE_MILLIS) {
+            mouseMotion = 0;
+        }
+        lastMouseActivity = now;
+        mouseMotion += Math.abs(dx) + Math.abs(dy);
+
+        if (mouseMotion >= MOUSE_MOTION_THRESHOLD && now - lastControllerActivity >= IDLE_MILLIS) {
+            switchToMouse(true);
+        }
+    }
+
+    /**
+     * キーボードのイベントを受け取る
+     *
+     * <p>
+     * GuiScreen.handleInput() の Keyboard.next() がイベントを読んだときに呼び出される
+     *
+     * @param keyState 押下なら {@code true}
+     */
+    public static void onKeyboardEvent(boolean keyState) {
+        if (!keyState) {
+            return;
+        }
+        lastMouseActivity = Minecraft.getSystemTime();
+        switchToMouse(false);
+    }
+
+    /**
+     * GUIを開いていない間のコントローラー操作を記録する
+     *
+     * <p>
+     * コントローラーでGUIを開いた場合にコントローラーモードで始めるために使用する
+     */
+    public static void onControllerActivity() {
+        lastControllerActivity = Minecraft.getSystemTime();
+    }
+
+    /**
+     * GUI表示中のコントローラー入力を受け取る
+     *
+     * <p>
+     * VirtualCursorから毎フレーム呼び出される
+     *
+     * @param tilt    スティックの傾きの大きさ (0.0 〜 1.0)
+     * @param pressed ボタン・十字キーが新たに押されたか
+     */
+    static void onControllerInput(float tilt, boolean pressed) {
+        long now = Minecraft.getSystemTime();
+
+        if (pressed) {
+            lastControllerActivity = now;
+            switchToController();
+            return;
+        }
+        if (tilt < STICK_ACTIVITY_THRESHOLD) {
+            return;
+        }
+
+        lastControllerActivity = now;
+        if (tilt >= STICK_SWITCH_THRESHOLD && now - lastMouseActivity >= IDLE_MILLIS) {
+            switchToController();
+        }
+    }
+
+    /**
+     * GUIが開いたときの入力元を決める
+     *
+     * <p>
+     * 直前にコントローラーを操作していた場合 (コントローラーでGUIを開いた場合など) は
+     * コントローラーモード、それ以外はマウスモードで始める
+     */
+    static void onGuiOpened() {
+        mouseMotion = 0;
+        boolean controller = Minecraft.getSystemTime() - lastControllerActivity <= RECENT_CONTROLLER_MILLIS;
+        VirtualCursorManager.setControllerInputActive(controller);
+    }
+
+    /**
+     * マウスモードに切り替える
+     *
+     * @param warp 実マウスをバーチャルカーソルの位置へ移す場合は {@code true}
+     */
+    private static void switchToMouse(boolean warp) {
+        mouseMotion = 0;
+        if (!VirtualCursorManager.isControllerInputActive()) {
+            return;
+        }
+
+        if (warp && !Mouse.isGrabbed()) {
+            long state = VirtualCursorManager.getSnapshot();
+            Mouse.setCursorPosition(CursorSnapshot.getDisplayX(state), CursorSnapshot.getDisplayY(state));
+        }
+        VirtualCursorManager.setControllerInputActive(false);
+        ControllerMod.LOG.debug("Input mode: Mouse");
+    }
+
+    /**
+     * コントローラーモードに切り替え、バーチャルカーソルを実マウスの位置へ移す
+     */
+    private static void switchToController() {
+        if (VirtualCursorManager.isControllerInputActive() || !VirtualCursorManager.isActive()) {
+            return;
+        }
+
+        VirtualCursorManager.getInstance()
+            .warpToDisplay(Mouse.getX(), Mouse.getY());
+        VirtualCursorManager.setControllerInputActive(true);
+        ControllerMod.LOG.debug("Input mode: Controller");
+    }
+}
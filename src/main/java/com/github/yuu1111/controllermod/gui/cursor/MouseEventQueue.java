@@ -0,0 +1,240 @@
+package com.github.yuu1111.controllermod.gui.cursor;
+
+/**
+ * バーチャルカーソルの合成マウスイベントのキュー
+ *
+ * <p>
+ * VirtualCursorが押下・解放・移動・ホイールをLWJGLのマウスイベントと同じ形式で積み、
+ * MouseHook.next() が実マウスのイベントより先に1件ずつ取り出す。
+ * 取り出したイベントは次の next() まで「現在のイベント」となり、
+ * MouseHook.getEventButton() などはその値を返す。
+ * これによりGuiScreen.handleMouseInput() を上書きした画面も通常のイベントループで
+ * コントローラーの操作を受け取れる。ただし上書きした handleMouseInput() が
+ * Mouse.getEvent*() を直接読む場合は、ASMトランスフォーマーが有効なときのみ合成イベントを渡す
+ * ({@link MouseInputCoverage})。
+ *
+ * <p>
+ * 配列によるリングバッファで、イベントごとの割り当ては行わない。
+ * 書き込み・読み出しともにクライアントスレッドのみで行うこと
+ */
+public final class MouseEventQueue {
+
+    /** キューの容量 (1フレームで積まれるイベントは高々数件) */
+    private static final int CAPACITY = 64;
+
+    private static final int MASK = CAPACITY - 1;
+
+    // イベントの各フィールド (リングバッファ)
+    private static final int[] buttons = new int[CAPACITY];
+    private static final boolean[] buttonStates = new boolean[CAPACITY];
+    private static final int[] xs = new int[CAPACITY];
+    private static final int[] ys = new int[CAPACITY];
+    private static final int[] dxs = new int[CAPACITY];
+    private static final int[] dys = new int[CAPACITY];
+    private static final int[] dwheels = new int[CAPACITY];
+    private static final long[] nanos = new long[CAPACITY];
+
+    /** 次に読み出す位置 */
+    private static int head = 0;
+
+    /** 次に書き込む位置 */
+    private static int tail = 0;
+
+    /** 現在のイベントが合成イベントか */
+    private static boolean current = false;
+
+    // 現在のイベント
+    private static int currentButton;
+    private static boolean currentButtonState;
+    private static int currentX;
+    private static int currentY;
+    private static int currentDX;
+    private static int currentDY;
+    private static int currentDWheel;
+    private static long currentNanos;
+
+    /** MouseHook.next() がイベントループから呼ばれているか */
+    private static boolean consumerInstalled = false;
+
+    private MouseEventQueue() {
+        // ユーティリティクラス
+    }
+
+    /**
+     * イベントを積む
+     *
+     * <p>
+     * キューが満杯の場合は古いイベントを上書きせずに破棄する
+     *
+     * @param button      ボタン番号 (移動のみの場合は-1)
+     * @param buttonState 押下なら {@code true}
+     * @param x           ディスプレイX座標
+     * @param y           ディスプレイY座標 (左下原点)
+     * @param dx          X方向の移動量
+     * @param dy          Y方向の移動量
+     * @param dwheel      ホイールの回転量 (1ノッチ = 120)
+     */
+    static void push(int button, boolean buttonState, int x, int y, int dx, int dy, int dwheel) {
+        if (tail - head == CAPACITY) {
+            return;
+        }
+        int i = tail & MASK;
+        buttons[i] = button;
+        buttonStates[i] = buttonState;
+        xs[i] = x;
+        ys[i] = y;
+        dxs[i] = dx;
+        dys[i] = dy;
+        dwheels[i] = dwheel;
+        nanos[i] = System.nanoTime();
+        tail++;
+    }
+
+    /**
+     * 次のイベントを現在のイベントにする
+     *
+     * <p>
+     * MouseHook.next() から呼び出される
+     *
+     * @return 合成イベントがあった場合は {@code true} (無い場合は実マウスのイベントを読むこと)
+     */
+    public static boolean poll() {
+        consumerInstalled = true;
+        return advance();
+    }
+
+    /**
+     * 次のイベントを現在のイベントにする (イベントループ以外からの読み出し用)
+     *
+     * <p>
+     * VirtualCursorが描画フレームの開始時に合成イベントを画面へ届けるときに呼び出す。
+     * {@link #isConsumerInstalled()} の判定には影響しない
+     *
+     * @return 合成イベントがあった場合は {@code true}
+     */
+    static boolean advance() {
+        if (head == tail) {
+            current = false;
+            return false;
+        }
+        int i = head & MASK;
+        currentButton = buttons[i];
+        currentButtonState = buttonStates[i];
+        currentX = xs[i];
+        currentY = ys[i];
+        currentDX = dxs[i];
+        currentDY = dys[i];
+        currentDWheel = dwheels[i];
+        currentNanos = nanos[i];
+        head++;
+        current = true;
+        return true;
+    }
+
+    /**
+     * 未処理のイベントを破棄する
+     *
+     * <p>
+     * GUIを閉じた後にゲーム側のイベントループへクリックが漏れないようにする。
+     * 合成イベントを読めない画面のイベントループ (MouseHook.next(GuiScreen)) からも呼び出される
+     */
+    public static void clear() {
+        head = tail;
+        current = false;
+    }
+
+    /**
+     * イベントループがこのキューを読んでいるかを返す
+     *
+     * <p>
+     * Mixin (または有効時のトランスフォーマー) がMouse.next() をフックしていれば、
+     * GUIを開いている間は毎tick {@link #poll()} が呼ばれる。
+     * 読まれていない場合、VirtualCursorはGuiScreenのメソッドを直接呼び出す
+     *
+     * @return 読まれている場合は {@code true}
+     */
+    public static boolean isConsumerInstalled() {
+        return consumerInstalled;
+    }
+
+    /**
+     * 現在のイベントが合成イベントかを返す
+     *
+     * @return 合成イベントの場合は {@code true}
+     */
+    public static boolean hasCurrent() {
+        return current;
+    }
+
+    /**
+     * 現在のイベントのボタン番号を取得する
+     *
+     * @return ボタン番号 (移動のみの場合は-1)
+     */
+    public static int getButton() {
+        return currentButton;
+    }
+
+    /**
+     * 現在のイベントが押下かを取得する
+     *
+     * @return 押下の場合は {@code true}
+     */
+    public static boolean getButtonState() {
+        return currentButtonState;
+    }
+
+    /**
+     * 現在のイベントのX座標を取得する
+     *
+     * @return ディスプレイX座標
+     */
+    public static int getX() {
+        return currentX;
+    }
+
+    /**
+     * 現在のイベントのY座標を取得する
+     *
+     * @return ディスプレイY座標 (左下原点)
+     */
+    public static int getY() {
+        return currentY;
+    }
+
+    /**
+     * 現在のイベントのX方向の移動量を取得する
+     *
+     * @return 移動量
+     */
+    public static int getDX() {
+        return currentDX;
+    }
+
+    /**
+     * 現在のイベントのY方向の移動量を取得する
+     *
+     * @return 移動量
+     */
+    public static int getDY() {
+        return currentDY;
+    }
+
+    /**
+     * 現在のイベントのホイール回転量を取得する
+     *
+     * @return 回転量 (1ノッチ = 120)
+     */
+    public static int getDWheel() {
+        return currentDWheel;
+    }
+
+    /**
+     * 現在のイベントの発生時刻を取得する
+     *
+     * @return {@link System#nanoTime()} の値
+     */
+    public static long getNanoseconds() {
+        return currentNanos;
+    }
+}
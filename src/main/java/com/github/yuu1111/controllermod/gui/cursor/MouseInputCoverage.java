@@ -0,0 +1,90 @@
+package com.github.yuu1111.controllermod.gui.cursor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import net.minecraft.client.gui.GuiScreen;
+import net.minecraft.client.gui.inventory.GuiContainerCreative;
+
+import com.github.yuu1111.controllermod.asm.MouseHook;
+
+/**
+ * 画面の handleMouseInput() が合成マウスイベントを読めるかの判定
+ *
+ * <p>
+ * 合成イベントの値を返すのは、Mixinで差し替えた Mouse.getEvent*() の呼び出し箇所と、
+ * 有効な場合のASMトランスフォーマーで置換された呼び出し箇所のみ。
+ * トランスフォーマーが無効な場合、handleMouseInput() を上書きした他MODの画面 (NEIなど) は
+ * Mouse.getEventButton() などを直接読むため、合成イベントに対して実マウスの直前のイベントの値を見てしまう。
+ * そのような画面にはイベントループで合成イベントを渡さず、GuiScreenAccessorによる直接呼び出しで操作を伝える。
+ *
+ * <p>
+ * 判定はクラスごとに一度だけ行う。クライアントスレッドからのみ呼び出すこと
+ */
+public final class MouseInputCoverage {
+
+    /** handleMouseInput() のメソッド名 (開発環境の名前とSRG名) */
+    private static final String[] METHOD_NAMES = { "handleMouseInput", "func_146274_d" };
+
+    /** 画面のクラスごとの判定結果 */
+    private static final Map<Class<?>, Boolean> covered = new HashMap<>();
+
+    private MouseInputCoverage() {
+        // ユーティリティクラス
+    }
+
+    /**
+     * 画面の handleMouseInput() が合成イベントを読めるかを返す
+     *
+     * @param screen 画面
+     * @return 読める場合は {@code true}
+     */
+    public static boolean isCovered(GuiScreen screen) {
+        if (MouseHook.isTransformerEnabled()) {
+            return true;
+        }
+        Class<?> type = screen.getClass();
+        Boolean result = covered.get(type);
+        if (result == null) {
+            result = scan(type);
+            covered.put(type, result);
+        }
+        return result;
+    }
+
+    /**
+     * GuiScreenまでの継承階層に、Mixinで差し替えていない handleMouseInput() の上書きが無いかを調べる
+     */
+    private static boolean scan(Class<?> type) {
+        for (Class<?> c = type; c != null && c != GuiScreen.class; c = c.getSuperclass()) {
+            // MixinGuiContainerCreativeでホイールを差し替え済みで、残りはGuiScreenの処理に任せている
+            if (c == GuiContainerCreative.class) {
+                return true;
+            }
+            if (declaresHandleMouseInput(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * クラスが handleMouseInput() を宣言しているかを返す
+     *
+     * <p>
+     * 宣言を調べられない場合は、上書きしているものとして扱う
+     */
+    private static boolean declaresHandleMouseInput(Class<?> c) {
+        for (String name : METHOD_NAMES) {
+            try {
+                c.getDeclaredMethod(name);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // 次の名前を調べる
+            } catch (SecurityException | LinkageError e) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
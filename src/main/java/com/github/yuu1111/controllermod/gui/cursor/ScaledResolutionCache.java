@@ -0,0 +1,55 @@
+package com.github.yuu1111.controllermod.gui.cursor;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.ScaledResolution;
+
+/**
+ * ScaledResolutionのキャッシュ
+ *
+ * <p>
+ * ScaledResolutionはウィンドウサイズ・GUIスケール・Unicodeフォント設定だけで決まるため、
+ * これらが変わらない限り同じインスタンスを返す。
+ * ウィンドウのリサイズや設定変更は次回の {@link #get()} で検出して作り直す。
+ *
+ * <p>
+ * クライアントスレッドからのみ呼び出すこと
+ */
+public final class ScaledResolutionCache {
+
+    /** キャッシュ済みのインスタンス */
+    private static ScaledResolution cached;
+
+    // キャッシュ作成時の条件
+    private static int lastDisplayWidth;
+    private static int lastDisplayHeight;
+    private static int lastGuiScale;
+    private static boolean lastUnicode;
+
+    private ScaledResolutionCache() {
+        // ユーティリティクラス
+    }
+
+    /**
+     * 現在の画面設定に対応するScaledResolutionを取得する
+     *
+     * @return ScaledResolution (条件が変わっていなければ前回と同じインスタンス)
+     */
+    public static ScaledResolution get() {
+        Minecraft mc = Minecraft.getMinecraft();
+        int guiScale = mc.gameSettings.guiScale;
+        // ScaledResolutionはUnicodeフォント使用時にスケールを偶数に丸める
+        boolean unicode = mc.func_152349_b();
+
+        if (cached == null || mc.displayWidth != lastDisplayWidth
+            || mc.displayHeight != lastDisplayHeight
+            || guiScale != lastGuiScale
+            || unicode != lastUnicode) {
+            cached = new ScaledResolution(mc, mc.displayWidth, mc.displayHeight);
+            lastDisplayWidth = mc.displayWidth;
+            lastDisplayHeight = mc.displayHeight;
+            lastGuiScale = guiScale;
+            lastUnicode = unicode;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,311 @@
+package com.github.yuu1111.controllermod.gui.cursor;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.minecraft.client.gui.inventory.GuiContainer;
+import net.minecraft.inventory.Container;
+import net.minecraft.inventory.Slot;
+
+import com.github.yuu1111.controllermod.mixins.GuiContainerAccessor;
+
+/**
+ * GuiContainerのスロットの空間インデックス
+ *
+ * <p>
+ * スロットの中心座標 (GUI座標系) を一様グリッドに振り分け、カーソル付近のスロットは
+ * 周囲3x3セルだけを調べて求める。方向キーでの移動先は構築時に全スロット分を求めておく。
+ *
+ * <p>
+ * 画面の初期化時と、レイアウト (GUIの位置・コンテナ・スロット数) が変わったときだけ構築し直す。
+ * 毎フレームの判定は {@link #isBuiltFor(GuiContainer)} の比較のみで、スロットは走査しない。
+ *
+ * <p>
+ * タブ切り替えやページ送りのあるGUIではスロット数を変えずにスロットが移動するため、
+ * インデックスを使う直前 (十字キーでの移動時、スティックを離して吸着を始めるとき) にだけ
+ * {@link #isCurrent(GuiContainer)} でスロットの表示位置のシグネチャも比較する。
+ * クリエイティブタブの切り替えはMixinから {@link #clear()} で破棄される。
+ * クライアントスレッドからのみ呼び出すこと
+ */
+final class SlotIndex {
+
+    /** グリッドのセルの一辺 (バニラのスロット間隔と同じ) */
+    static final int CELL_SIZE = 18;
+
+    /** スロットの一辺の半分 */
+    static final int SLOT_HALF = 8;
+
+    /** 構築対象の画面 (null = 未構築) */
+    private GuiContainer screen;
+
+    // 構築時のレイアウト
+    private Container container;
+    private int guiLeft;
+    private int guiTop;
+    private int slotListSize;
+
+    /** 構築時のスロットの表示位置のシグネチャ ({@link #signature(List)}) */
+    private int slotSignature;
+
+    /** 登録されたスロット数 */
+    private int count = 0;
+
+    // スロットの中心座標 (GUI座標系)
+    private float[] centerX = new float[0];
+    private float[] centerY = new float[0];
+
+    /** 方向キーでの移動先 (スロット番号 * {@link Direction#COUNT} + 方向、-1 = 無し) */
+    private int[] neighbours = new int[0];
+
+    // グリッド (原点は画面左上)
+    private int columns;
+    private int rows;
+
+    /** セルごとの先頭位置 ({@link #cellSlots} 内、セル数 + 1 要素) */
+    private int[] cellStart = new int[1];
+
+    /** セル順に並べたスロット番号 */
+    private int[] cellSlots = new int[0];
+
+    /**
+     * 指定の画面の現在のレイアウトで構築済みかを返す
+     *
+     * <p>
+     * 毎フレーム呼び出されるため、スロットの位置は比較しない
+     *
+     * @param gc 画面
+     * @return 構築済みの場合は {@code true}
+     */
+    boolean isBuiltFor(GuiContainer gc) {
+        GuiContainerAccessor accessor = (GuiContainerAccessor) gc;
+        return gc == screen && gc.inventorySlots == container
+            && accessor.controllermod$getGuiLeft() == guiLeft
+            && accessor.controllermod$getGuiTop() == guiTop
+            && gc.inventorySlots.inventorySlots.size() == slotListSize;
+    }
+
+    /**
+     * 指定の画面の現在のレイアウトとスロットの位置で構築済みかを返す
+     *
+     * <p>
+     * スロットを1回走査するため、インデックスを使う直前にのみ呼び出すこと
+     *
+     * @param gc 画面
+     * @return 構築済みの場合は {@code true}
+     */
+    boolean isCurrent(GuiContainer gc) {
+        return isBuiltFor(gc) && signature(gc.inventorySlots.inventorySlots) == slotSignature;
+    }
+
+    /**
+     * スロットの表示位置と有効状態のシグネチャを計算する
+     *
+     * @param slots スロットのリスト
+     * @return シグネチャ
+     */
+    private static int signature(List<?> slots) {
+        int hash = 1;
+        for (Object o : slots) {
+            Slot slot = (Slot) o;
+            hash = 31 * hash + slot.xDisplayPosition;
+            hash = 31 * hash + slot.yDisplayPosition;
+            hash = 31 * hash + (slot.func_111238_b() ? 1 : 0);
+        }
+        return hash;
+    }
+
+    /**
+     * スロットを登録し直す
+     *
+     * <p>
+     * 画面外に置かれたスロット (非表示の扱い) と無効なスロットは登録しない
+     *
+     * @param gc           画面
+     * @param screenWidth  画面の幅 (GUI座標系)
+     * @param screenHeight 画面の高さ (GUI座標系)
+     */
+    void build(GuiContainer gc, int screenWidth, int screenHeight) {
+        GuiContainerAccessor accessor = (GuiContainerAccessor) gc;
+        List<?> slots = gc.inventorySlots.inventorySlots;
+        screen = gc;
+        container = gc.inventorySlots;
+        guiLeft = accessor.controllermod$getGuiLeft();
+        guiTop = accessor.controllermod$getGuiTop();
+        slotListSize = slots.size();
+        slotSignature = signature(slots);
+
+        if (centerX.length < slotListSize) {
+            centerX = new float[slotListSize];
+            centerY = new float[slotListSize];
+            neighbours = new int[slotListSize * Direction.COUNT];
+            cellSlots = new int[slotListSize];
+        }
+
+        count = 0;
+        for (Object o : slots) {
+            Slot slot = (Slot) o;
+            if (!slot.func_111238_b()) {
+                continue;
+            }
+            int x = guiLeft + slot.xDisplayPosition + SLOT_HALF;
+            int y = guiTop + slot.yDisplayPosition + SLOT_HALF;
+            if (x < 0 || y < 0 || x >= screenWidth || y >= screenHeight) {
+                continue;
+            }
+            centerX[count] = x;
+            centerY[count] = y;
+            count++;
+        }
+
+        buildGrid(screenWidth, screenHeight);
+
+        for (int i = 0; i < count; i++) {
+            for (int dir = 0; dir < Direction.COUNT; dir++) {
+                neighbours[i * Direction.COUNT + dir] = findInDirection(centerX[i], centerY[i], dir);
+            }
+        }
+    }
+
+    /**
+     * 登録を破棄する
+     */
+    void clear() {
+        screen = null;
+        container = null;
+        count = 0;
+    }
+
+    /**
+     * スロットをセルごとに並べ替える
+     */
+    private void buildGrid(int screenWidth, int screenHeight) {
+        columns = screenWidth / CELL_SIZE + 1;
+        rows = screenHeight / CELL_SIZE + 1;
+        int cells = columns * rows;
+        if (cellStart.length < cells + 1) {
+            cellStart = new int[cells + 1];
+        } else {
+            Arrays.fill(cellStart, 0, cells + 1, 0);
+        }
+
+        // セルごとの数を数えて先頭位置にする
+        for (int i = 0; i < count; i++) {
+            cellStart[cellOf(centerX[i], centerY[i]) + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        // 先頭位置を進めながら格納し、最後に元に戻す
+        for (int i = 0; i < count; i++) {
+            int cell = cellOf(centerX[i], centerY[i]);
+            cellSlots[cellStart[cell]++] = i;
+        }
+        for (int c = cells; c > 0; c--) {
+            cellStart[c] = cellStart[c - 1];
+        }
+        cellStart[0] = 0;
+    }
+
+    /**
+     * 座標が含まれるセルを返す
+     */
+    private int cellOf(float x, float y) {
+        int column = Math.min(columns - 1, Math.max(0, (int) x / CELL_SIZE));
+        int row = Math.min(rows - 1, Math.max(0, (int) y / CELL_SIZE));
+        return row * columns + column;
+    }
+
+    /**
+     * 指定の位置に最も近いスロットを返す
+     *
+     * <p>
+     * 周囲3x3セルだけを調べるため、半径は {@link #CELL_SIZE} 以下であること
+     *
+     * @param x      X座標 (GUI座標系)
+     * @param y      Y座標 (GUI座標系)
+     * @param radius 探索半径
+     * @return スロット番号 (範囲内に無い場合は-1)
+     */
+    int nearest(float x, float y, float radius) {
+        if (count == 0) {
+            return -1;
+        }
+        int column = (int) x / CELL_SIZE;
+        int row = (int) y / CELL_SIZE;
+        float best = radius * radius;
+        int result = -1;
+
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+            for (int c = Math.max(0, column - 1); c <= Math.min(columns - 1, column + 1); c++) {
+                int cell = r * columns + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = cellSlots[k];
+                    float dx = centerX[i] - x;
+                    float dy = centerY[i] - y;
+                    float d = dx * dx + dy * dy;
+                    if (d <= best) {
+                        best = d;
+                        result = i;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * スロットから方向キーで移動する先を返す
+     *
+     * @param slot スロット番号
+     * @param dir  方向 ({@link Direction})
+     * @return 移動先のスロット番号 (無い場合は-1)
+     */
+    int neighbour(int slot, int dir) {
+        return neighbours[slot * Direction.COUNT + dir];
+    }
+
+    /**
+     * 指定の位置から見て指定の方向にあるスロットを返す
+     *
+     * <p>
+     * 全スロットを走査するため、構築時とスロット外からの移動時のみ使用する
+     *
+     * @param x   X座標 (GUI座標系)
+     * @param y   Y座標 (GUI座標系)
+     * @param dir 方向 ({@link Direction})
+     * @return スロット番号 (無い場合は-1)
+     */
+    int findInDirection(float x, float y, int dir) {
+        float best = Float.MAX_VALUE;
+        int result = -1;
+        for (int i = 0; i < count; i++) {
+            float score = Direction.score(dir, centerX[i] - x, centerY[i] - y);
+            if (score >= 0 && score < best) {
+                best = score;
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * スロットの中心のX座標を返す
+     *
+     * @param slot スロット番号
+     * @return X座標 (GUI座標系)
+     */
+    float getCenterX(int slot) {
+        return centerX[slot];
+    }
+
+    /**
+     * スロットの中心のY座標を返す
+     *
+     * @param slot スロット番号
+     * @return Y座標 (GUI座標系)
+     */
+    float getCenterY(int slot) {
+        return centerY[slot];
+    }
+}
@@ -1,19 +1,12 @@
 package com.github.yuu1111.controllermod.gui.cursor;
 
-import java.lang.reflect.Method;
-
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiScreen;
 import net.minecraft.client.gui.ScaledResolution;
-import net.minecraft.client.renderer.OpenGlHelper;
-import net.minecraft.client.renderer.Tessellator;
-
-import org.lwjgl.opengl.GL11;
+import net.minecraft.client.gui.inventory.GuiContainer;
 
-import com.github.yuu1111.controllermod.ControllerMod;
 import com.github.yuu1111.controllermod.config.ControllerConfig;
-
-import cpw.mods.fml.relauncher.ReflectionHelper;
+import com.github.yuu1111.controllermod.mixins.GuiScreenAccessor;
 
 /**
  * コントローラー用バーチャルカーソル
@@ -23,37 +16,81 @@ import cpw.mods.fml.relauncher.ReflectionHelper;
  * 実際のマウスカーソルには一切影響を与えず、内部座標のみを管理する。
  *
  * <p>
- * クリック操作はreflectionでGuiScreenのprotectedメソッドを直接呼び出すことで実現。
- * FMLのReflectionHelperを使用して難読化環境でも動作する。
+ * 移動・クリック・ホイールはGUI描画の前に毎フレーム処理し、移動量は経過時間で積算する。
+ * クリック操作は合成マウスイベント ({@link MouseEventQueue}) としてMouse.next() のイベントループに流す。
+ * Mouse.next() がフックされていない場合と、画面の handleMouseInput() が合成イベントを読めない場合
+ * ({@link MouseInputCoverage}) は、Mixinの {@link GuiScreenAccessor} を介して
+ * GuiScreenのprotectedメソッドを直接呼び出す。
  *
  * <ul>
- * <li>左スティック: カーソル移動</li>
+ * <li>左スティック: カーソル移動 (コンテナ画面ではスティックを離すと近くのスロットに吸着)</li>
+ * <li>十字キー: コンテナ画面では隣のスロットへ、それ以外の画面では隣のボタンへ移動</li>
  * <li>Aボタン: 左クリック</li>
  * <li>Bボタン: 右クリック</li>
+ * <li>右スティック上下: ホイール</li>
  * </ul>
  */
 public class VirtualCursor {
 
+    /** ホイール1ノッチ分の回転量 (LWJGLの値に合わせる) */
+    private static final int WHEEL_DELTA = 120;
+
+    /** 1フレームあたりの最大経過時間 (秒) 停止からの復帰時にカーソルやホイールが一度に大きく動かないようにする */
+    private static final float MAX_FRAME_DT = 0.1f;
+
+    /** スロットへの吸着を始める距離 (GUI座標系) */
+    private static final float MAGNET_RADIUS = 12;
+
+    /** スロットへの吸着の速さ (1秒あたりに残り距離を縮める割合) */
+    private static final float MAGNET_RATE = 20;
+
+    /** 吸着を完了とみなす距離 (GUI座標系) */
+    private static final float MAGNET_SNAP = 0.5f;
+
+    /** コンテナ画面のスロットのインデックス */
+    private final SlotIndex slotIndex = new SlotIndex();
+
+    /** ボタンの方向グラフ (コンテナ画面以外) */
+    private final ButtonFocusGraph buttonFocus = new ButtonFocusGraph();
+
+    /** カーソルの描画 */
+    private final CursorRenderer renderer = new CursorRenderer();
+
     /** カーソルX座標 (GUI座標系) */
     private float cursorX;
 
     /** カーソルY座標 (GUI座標系) */
     private float cursorY;
 
+    /** カーソルのディスプレイX座標 */
+    private int displayX;
+
+    /** カーソルのディスプレイY座標 (左下原点) */
+    private int displayY;
+
+    /** ディスプレイ座標の計算に使用したScaledResolution (解像度変更の検出用) */
+    private ScaledResolution displayResolution;
+
     /** カーソルが有効かどうか */
     private boolean active = false;
 
     /** 前フレームでGUIが開いていたか */
     private boolean wasGuiOpen = false;
 
-    /** mouseClicked メソッド (reflection) */
-    private Method mouseClickedMethod;
+    /** 前フレームで開いていた画面 (カーソル位置の記憶用) */
+    private GuiScreen openScreen;
+
+    /** 記憶したカーソル位置の取得先 (X, Y) */
+    private final float[] recalled = new float[2];
+
+    /** スティックを離してからスロットの位置を確認したか (吸着の開始時に一度だけ確認する) */
+    private boolean magnetLayoutChecked = false;
 
-    /** mouseReleased メソッド (reflection) */
-    private Method mouseReleasedMethod;
+    /** ホイールの端数 (1ノッチ = {@link #WHEEL_DELTA}) */
+    private float scrollAccumulator = 0;
 
-    /** mouseClickMove メソッド (reflection) */
-    private Method mouseClickMoveMethod;
+    /** 前フレームの時刻 (0 = GUIを開いてから未描画) */
+    private long lastFrameNanos = 0;
 
     /** 前フレームのAボタン状態 */
     private boolean prevButtonA = false;
@@ -61,176 +98,551 @@ public class VirtualCursor {
     /** 前フレームのBボタン状態 */
     private boolean prevButtonB = false;
 
-    /** マウスボタンが押されているか */
-    private boolean mouseButtonHeld = false;
+    /** 前フレームの十字キーの左右 (-1 〜 1) */
+    private int prevDpadX = 0;
+
+    /** 前フレームの十字キーの上下 (-1 〜 1) */
+    private int prevDpadY = 0;
+
+    /** 押されているマウスボタンのビットマスク (ボタン0 = 1ビット目) */
+    private int heldButtons = 0;
+
+    /** ドラッグとして伝えるマウスボタン (最後に押したボタン、-1 = 無し) GuiScreenのeventButtonに相当 */
+    private int dragButton = -1;
 
-    /** 押されているマウスボタン (0=左, 1=右) */
-    private int heldMouseButton = -1;
+    /** {@link #dragButton} を押した時刻 ({@link Minecraft#getSystemTime()}) */
+    private long pressTime = 0;
+
+    /** 最後に画面へ伝えたカーソルのX座標 (GUI座標系の整数) */
+    private int lastDragX;
+
+    /** 最後に画面へ伝えたカーソルのY座標 (GUI座標系の整数) */
+    private int lastDragY;
 
     /**
-     * コンストラクタ
+     * GUIの開閉に合わせてカーソルの状態を更新する
      *
      * <p>
-     * GuiScreenのprotectedメソッドをreflectionで取得する。
-     * FMLのReflectionHelperを使用して難読化環境でも動作するようにする。
+     * 毎tick呼び出される。GUIを閉じた後は描画イベントが来ないため、
+     * カーソルの無効化はここで検出する
      */
-    public VirtualCursor() {
-        try {
-            // GuiScreen.mouseClicked(int x, int y, int button)
-            // MCP名: mouseClicked, SRG名: func_73864_a
-            mouseClickedMethod = ReflectionHelper.findMethod(
-                GuiScreen.class,
-                null,
-                new String[] { "mouseClicked", "func_73864_a" },
-                int.class,
-                int.class,
-                int.class);
-
-            // GuiScreen.mouseMovedOrUp(int x, int y, int state)
-            // MCP名: mouseMovedOrUp, SRG名: func_146286_b
-            // 注意: 1.7.10では mouseReleased ではなく mouseMovedOrUp
-            mouseReleasedMethod = ReflectionHelper.findMethod(
-                GuiScreen.class,
-                null,
-                new String[] { "mouseMovedOrUp", "func_146286_b" },
-                int.class,
-                int.class,
-                int.class);
-
-            // GuiScreen.mouseClickMove(int x, int y, int button, long timeSinceLastClick)
-            // MCP名: mouseClickMove, SRG名: func_146273_a
-            mouseClickMoveMethod = ReflectionHelper.findMethod(
-                GuiScreen.class,
-                null,
-                new String[] { "mouseClickMove", "func_146273_a" },
-                int.class,
-                int.class,
-                int.class,
-                long.class);
-
-            ControllerMod.LOG.info("VirtualCursor: GuiScreen methods found via reflection");
-        } catch (Exception e) {
-            ControllerMod.LOG.error("Failed to get GuiScreen methods via reflection", e);
-        }
+    public void update() {
+        syncScreen(Minecraft.getMinecraft().currentScreen);
+
+        // 更新後の状態を他スレッド (MouseHook) にまとめて公開する
+        VirtualCursorManager.publishSnapshot();
     }
 
     /**
-     * カーソルを更新する
+     * カーソルの移動・クリック・ホイールを1フレーム分処理する
+     *
+     * <p>
+     * 描画フレームの開始時 (画面の描画より前) に毎フレーム呼び出される。
+     * 前フレームからの経過時間 ({@link System#nanoTime()}) で移動量を積算するため、
+     * カーソルはフレームレートに依存しない速度で滑らかに動く。
+     * ボタンの押下・解放はこのフレームのうちに画面へ届ける
      *
      * @param stickX  左スティックX軸 (-1.0 〜 1.0)
      * @param stickY  左スティックY軸 (-1.0 〜 1.0)
+     * @param scrollY 右スティックY軸 (-1.0 〜 1.0、上が負)
+     * @param dpadX   十字キーの左右 (-1 = 左, 1 = 右)
+     * @param dpadY   十字キーの上下 (-1 = 上, 1 = 下)
      * @param buttonA Aボタンが押されているか
      * @param buttonB Bボタンが押されているか
      */
-    public void update(float stickX, float stickY, boolean buttonA, boolean buttonB) {
-        Minecraft mc = Minecraft.getMinecraft();
-        GuiScreen currentScreen = mc.currentScreen;
+    public void updateFrame(float stickX, float stickY, float scrollY, int dpadX, int dpadY, boolean buttonA,
+        boolean buttonB) {
+        updateFrameState(stickX, stickY, scrollY, dpadX, dpadY, buttonA, buttonB);
+
+        // 更新後の状態を他スレッド (MouseHook) にまとめて公開する
+        VirtualCursorManager.publishSnapshot();
+    }
 
+    /**
+     * GUIが開いた・閉じたことを検出する
+     *
+     * @param currentScreen 現在のGUI画面
+     * @return カーソルが有効な場合は {@code true}
+     */
+    private boolean syncScreen(GuiScreen currentScreen) {
         // GUI が開いているかチェック
         boolean guiOpen = currentScreen != null;
 
-        // GUI が開いた瞬間にカーソルを中央に初期化
+        // GUI が開いた瞬間にカーソルを前回の位置 (記憶が無ければ中央) に初期化
         if (guiOpen && !wasGuiOpen) {
-            initCursor(mc);
+            initCursor();
+            recallPosition(currentScreen);
             active = true;
+            InputSourceArbiter.onGuiOpened();
+        }
+
+        // 別の画面に切り替わった場合は、前の画面の位置を記憶して次の画面の位置を復元する
+        if (guiOpen && wasGuiOpen && currentScreen != openScreen) {
+            rememberPosition(openScreen);
+            recallPosition(currentScreen);
+            MouseEventQueue.clear();
+            VirtualCursorManager.clearWheel();
         }
 
-        // GUI が閉じたらカーソルを無効化
+        // GUI が閉じたらカーソル位置を記憶して無効化
         if (!guiOpen && wasGuiOpen) {
+            rememberPosition(openScreen);
             active = false;
-            mouseButtonHeld = false;
-            heldMouseButton = -1;
-            VirtualCursorManager.setControllerInputActive(false);
+            heldButtons = 0;
+            dragButton = -1;
+            MouseEventQueue.clear();
+            VirtualCursorManager.clearWheel();
+            slotIndex.clear();
+            buttonFocus.clear();
         }
 
         wasGuiOpen = guiOpen;
+        openScreen = currentScreen;
+
+        // 入力モードはInputSourceArbiterが入力のたびに決めるため、ここでは変更しない
+        return active && currentScreen != null;
+    }
+
+    /**
+     * カーソルの状態を1フレーム分更新する
+     */
+    private void updateFrameState(float stickX, float stickY, float scrollY, int dpadX, int dpadY, boolean buttonA,
+        boolean buttonB) {
+        GuiScreen currentScreen = Minecraft.getMinecraft().currentScreen;
 
-        if (!active || currentScreen == null) {
-            VirtualCursorManager.setControllerInputActive(false);
+        if (!syncScreen(currentScreen)) {
             return;
         }
 
-        // マウスクリックを検出してモード切り替え
-        VirtualCursorManager.checkMouseInput();
+        // GUIを開いた直後のフレームは移動しない
+        long now = System.nanoTime();
+        float dt = lastFrameNanos != 0 ? Math.min((now - lastFrameNanos) / 1_000_000_000f, MAX_FRAME_DT) : 0;
+        lastFrameNanos = now;
 
-        // コントローラー入力があるかチェック (スティックまたはボタン)
-        boolean hasControllerInput = Math.abs(stickX) > 0.01f || Math.abs(stickY) > 0.01f || buttonA || buttonB;
-        if (hasControllerInput) {
-            VirtualCursorManager.setControllerInputActive(true);
-        }
+        // コントローラーの入力を入力元の判定に伝える (切り替え時はカーソルが実マウスの位置に移る)
+        float tilt = Math.min(1.0f, (float) Math.sqrt(stickX * stickX + stickY * stickY));
+        int dir = Direction.fromDpad(dpadX, dpadY, prevDpadX, prevDpadY);
+        boolean pressed = dir != Direction.NONE || buttonA && !prevButtonA || buttonB && !prevButtonB;
+        InputSourceArbiter.onControllerInput(Math.max(tilt, Math.abs(scrollY)), pressed);
 
-        ScaledResolution sr = new ScaledResolution(mc, mc.displayWidth, mc.displayHeight);
+        ScaledResolution sr = ScaledResolutionCache.get();
         int screenWidth = sr.getScaledWidth();
         int screenHeight = sr.getScaledHeight();
 
-        // カーソル移動
-        float speed = ControllerConfig.cursorSpeed;
-        cursorX += stickX * speed;
-        cursorY += stickY * speed;
+        // 合成イベントを画面が読めるか (読めない場合はGuiScreenAccessorで直接呼び出す)
+        boolean useEvents = MouseEventQueue.isConsumerInstalled() && MouseInputCoverage.isCovered(currentScreen);
+
+        // カーソル移動 (スティックの傾きを加速カーブで速度に変換し、経過時間で積算)
+        float prevX = cursorX;
+        float prevY = cursorY;
+        if (tilt > 0 && dt > 0) {
+            float speed = (float) Math.pow(tilt, ControllerConfig.cursorAcceleration)
+                * ControllerConfig.cursorSpeedPerSecond;
+            cursorX += stickX / tilt * speed * dt;
+            cursorY += stickY / tilt * speed * dt;
+        }
+
+        // コンテナ画面では十字キーでスロット間を移動し、スティックを離すとスロットに吸着する
+        // それ以外の画面では十字キーでボタン間のフォーカスを移動する
+        SlotIndex slots = getSlotIndex(currentScreen, screenWidth, screenHeight);
+        if (slots != null) {
+            GuiContainer gc = (GuiContainer) currentScreen;
+            boolean stepped = false;
+            if (dir != Direction.NONE) {
+                refreshSlotLayout(gc, screenWidth, screenHeight);
+                stepped = stepSlot(slots, dir);
+            }
+            if (tilt > 0) {
+                magnetLayoutChecked = false;
+            } else if (!stepped && ControllerConfig.slotMagnetism) {
+                if (!magnetLayoutChecked) {
+                    refreshSlotLayout(gc, screenWidth, screenHeight);
+                    magnetLayoutChecked = true;
+                }
+                pullToSlot(slots, dt);
+            }
+        } else if (tilt > 0) {
+            buttonFocus.clearFocus();
+        } else if (dir != Direction.NONE) {
+            moveFocus(currentScreen, dir);
+        }
 
         // 画面内に制限
         cursorX = Math.max(0, Math.min(screenWidth - 1, cursorX));
         cursorY = Math.max(0, Math.min(screenHeight - 1, cursorY));
 
-        // ボタン処理 (reflectionでクリックを発生させる)
-        handleButtons(currentScreen, buttonA, buttonB);
+        // カーソルが動いたか解像度が変わった場合のみディスプレイ座標を計算し直す
+        if (cursorX != prevX || cursorY != prevY || sr != displayResolution) {
+            int prevDisplayX = displayX;
+            int prevDisplayY = displayY;
+            updateDisplayPosition(sr);
+
+            // 移動イベント (ボタン押下中であればGuiScreenがドラッグとして処理する)
+            // GuiScreenは整数のGUI座標で処理するため、それが変わったときだけ積む
+            if (useEvents && ((int) cursorX != lastDragX || (int) cursorY != lastDragY)) {
+                MouseEventQueue
+                    .push(-1, false, displayX, displayY, displayX - prevDisplayX, displayY - prevDisplayY, 0);
+            }
+        }
+
+        // ボタン処理 (合成イベントまたは直接呼び出しでクリックを発生させる)
+        handleButtons(currentScreen, buttonA, buttonB, useEvents);
+
+        // 積んだ移動・クリックをこのフレームのうちに画面へ届ける
+        dispatchEvents(currentScreen);
+
+        // ホイールはGuiSlotなどが描画中に読むため、ここでは届けずに積んでおく
+        updateScroll(scrollY, dt, useEvents);
 
         // 前フレームの状態を保存
         prevButtonA = buttonA;
         prevButtonB = buttonB;
+        prevDpadX = dpadX;
+        prevDpadY = dpadY;
+    }
+
+    /**
+     * 閉じる画面のカーソル位置を記憶する
+     */
+    private void rememberPosition(GuiScreen screen) {
+        if (screen == null || !active) {
+            return;
+        }
+        ScaledResolution sr = ScaledResolutionCache.get();
+        CursorMemory.remember(screen, cursorX, cursorY, sr.getScaledWidth(), sr.getScaledHeight());
+    }
+
+    /**
+     * 開いた画面について記憶したカーソル位置を復元する
+     */
+    private void recallPosition(GuiScreen screen) {
+        ScaledResolution sr = ScaledResolutionCache.get();
+        int screenWidth = sr.getScaledWidth();
+        int screenHeight = sr.getScaledHeight();
+        if (!CursorMemory.recall(screen, screenWidth, screenHeight, recalled)) {
+            return;
+        }
+        cursorX = Math.max(0, Math.min(screenWidth - 1, recalled[0]));
+        cursorY = Math.max(0, Math.min(screenHeight - 1, recalled[1]));
+        updateDisplayPosition(sr);
+    }
+
+    /**
+     * 画面が初期化されたときにスロットのインデックスまたはボタンの方向グラフを構築する
+     *
+     * <p>
+     * GUIを開いたときとウィンドウサイズが変わったときに呼び出される
+     *
+     * @param screen 初期化された画面
+     */
+    public void onGuiInit(GuiScreen screen) {
+        if (screen instanceof GuiContainer) {
+            ScaledResolution sr = ScaledResolutionCache.get();
+            slotIndex.build((GuiContainer) screen, sr.getScaledWidth(), sr.getScaledHeight());
+            buttonFocus.clear();
+        } else {
+            slotIndex.clear();
+            buttonFocus.build(screen);
+        }
+    }
+
+    /**
+     * 現在の画面のスロットのインデックスを取得する
+     *
+     * <p>
+     * GUIの位置やスロット数が初期化後に変わった場合のみ構築し直す
+     *
+     * @return インデックス (コンテナ画面でない場合は {@code null})
+     */
+    private SlotIndex getSlotIndex(GuiScreen screen, int screenWidth, int screenHeight) {
+        if (!(screen instanceof GuiContainer)) {
+            return null;
+        }
+        GuiContainer gc = (GuiContainer) screen;
+        if (!slotIndex.isBuiltFor(gc)) {
+            slotIndex.build(gc, screenWidth, screenHeight);
+        }
+        return slotIndex;
+    }
+
+    /**
+     * スロットが初期化後に移動していればインデックスを構築し直す
+     *
+     * <p>
+     * スロットを走査するため、十字キーでの移動時と吸着の開始時にのみ呼び出す
+     */
+    private void refreshSlotLayout(GuiContainer gc, int screenWidth, int screenHeight) {
+        if (!slotIndex.isCurrent(gc)) {
+            slotIndex.build(gc, screenWidth, screenHeight);
+        }
+    }
+
+    /**
+     * スロットのレイアウトが変わったときにインデックスを破棄する
+     *
+     * <p>
+     * クリエイティブタブの切り替えなど、初期化を伴わずにスロットが入れ替わったときに呼び出される。
+     * 次のフレームで構築し直す
+     */
+    public void onSlotLayoutChanged() {
+        slotIndex.clear();
+    }
+
+    /**
+     * 十字キーが押された方向の隣のスロットへカーソルを移動する
+     *
+     * <p>
+     * カーソルがスロット上にあれば構築時に求めた移動先へ、
+     * スロット外にあればその位置から見た方向のスロットへ移動する
+     *
+     * @return 移動した場合は {@code true}
+     */
+    private boolean stepSlot(SlotIndex slots, int dir) {
+        int current = slots.nearest(cursorX, cursorY, SlotIndex.SLOT_HALF + 1);
+        int target = current >= 0 ? slots.neighbour(current, dir) : slots.findInDirection(cursorX, cursorY, dir);
+        if (target < 0) {
+            return false;
+        }
+        cursorX = slots.getCenterX(target);
+        cursorY = slots.getCenterY(target);
+        return true;
+    }
+
+    /**
+     * 十字キーが押された方向の隣のボタンへフォーカスを移し、カーソルをその中心に置く
+     *
+     * <p>
+     * フォーカスが無い場合はカーソルに最も近いボタンにフォーカスする。
+     * カーソルがボタン上にあるため、ボタンのハイライトと決定 (Aボタン) は通常のマウス操作と同じ経路で行われる
+     */
+    private void moveFocus(GuiScreen screen, int dir) {
+        if (!buttonFocus.isBuiltFor(screen)) {
+            buttonFocus.build(screen);
+        }
+        if (buttonFocus.move(dir, cursorX, cursorY)) {
+            cursorX = buttonFocus.getFocusX();
+            cursorY = buttonFocus.getFocusY();
+        }
+    }
+
+    /**
+     * 近くのスロットの中心へカーソルを引き寄せる
+     */
+    private void pullToSlot(SlotIndex slots, float dt) {
+        int slot = slots.nearest(cursorX, cursorY, MAGNET_RADIUS);
+        if (slot < 0) {
+            return;
+        }
+        float dx = slots.getCenterX(slot) - cursorX;
+        float dy = slots.getCenterY(slot) - cursorY;
+        if (Math.abs(dx) <= MAGNET_SNAP && Math.abs(dy) <= MAGNET_SNAP) {
+            cursorX += dx;
+            cursorY += dy;
+            return;
+        }
+        float k = Math.min(1.0f, dt * MAGNET_RATE);
+        cursorX += dx * k;
+        cursorY += dy * k;
+    }
+
+    /**
+     * キューに積んだ合成イベントを画面に届ける
+     *
+     * <p>
+     * 通常はtickごとのGuiScreen.handleInput() がフックされた Mouse.next() でイベントを読むが、
+     * それを待つと最大1tick遅れるため、描画前にGuiScreen.handleMouseInput() を呼び出して処理させる。
+     * 実マウスのイベントには触れず、合成イベントのみを取り出す。
+     * クリックで画面が切り替わった場合、残りのイベントは破棄する
+     *
+     * <p>
+     * イベントを積むのは handleMouseInput() が合成イベントを読める画面 ({@link MouseInputCoverage}) のみで、
+     * それ以外の画面にはGuiScreenAccessorで直接呼び出し済みのため、ここで届けるものは無い
+     *
+     * @param screen イベントを積んだ画面
+     */
+    private void dispatchEvents(GuiScreen screen) {
+        if (!MouseEventQueue.isConsumerInstalled()) {
+            return;
+        }
+        Minecraft mc = Minecraft.getMinecraft();
+        while (MouseEventQueue.advance()) {
+            if (mc.currentScreen != screen) {
+                MouseEventQueue.clear();
+                return;
+            }
+            screen.handleMouseInput();
+        }
+    }
+
+    /**
+     * スティック入力からホイールの回転を発生させる
+     *
+     * <p>
+     * スティックの傾きに比例した回転量 (ノッチ/秒) をフレーム間の経過時間で積算し、
+     * 1ノッチ分たまるごとにホイールイベントを発生させる。
+     * 多くのGUIはホイールの符号しか見ないため、端数は次のフレームに持ち越す
+     *
+     * @param stickY    スティックY軸 (-1.0 〜 1.0、上が負)
+     * @param dt        前フレームからの経過時間 (秒)
+     * @param useEvents 画面が合成イベントを読めるか (読めない場合はイベントを積まない)
+     */
+    private void updateScroll(float stickY, float dt, boolean useEvents) {
+        if (stickY == 0 || dt == 0) {
+            scrollAccumulator = 0;
+            return;
+        }
+
+        // スティックを上に倒すと上方向 (正) に回転
+        scrollAccumulator += -stickY * ControllerConfig.scrollSpeed * WHEEL_DELTA * dt;
+
+        int notches = (int) (scrollAccumulator / WHEEL_DELTA);
+        if (notches == 0) {
+            return;
+        }
+        scrollAccumulator -= notches * WHEEL_DELTA;
+
+        // イベントを読む画面と Mouse.getDWheel() を読む画面の両方に届ける (LWJGLと同じ)
+        if (useEvents) {
+            int sign = notches > 0 ? 1 : -1;
+            for (int i = 0; i < notches * sign; i++) {
+                MouseEventQueue.push(-1, false, displayX, displayY, 0, 0, sign * WHEEL_DELTA);
+            }
+        }
+        VirtualCursorManager.addWheel(notches * WHEEL_DELTA);
     }
 
     /**
      * カーソルを画面中央に初期化する
      */
-    private void initCursor(Minecraft mc) {
-        ScaledResolution sr = new ScaledResolution(mc, mc.displayWidth, mc.displayHeight);
+    private void initCursor() {
+        ScaledResolution sr = ScaledResolutionCache.get();
         cursorX = sr.getScaledWidth() / 2f;
         cursorY = sr.getScaledHeight() / 2f;
-        mouseButtonHeld = false;
-        heldMouseButton = -1;
+        updateDisplayPosition(sr);
+        heldButtons = 0;
+        dragButton = -1;
         prevButtonA = false;
         prevButtonB = false;
+        prevDpadX = 0;
+        prevDpadY = 0;
+        lastFrameNanos = 0;
+        magnetLayoutChecked = false;
+        scrollAccumulator = 0;
+        MouseEventQueue.clear();
+    }
+
+    /**
+     * カーソルを指定のディスプレイ座標 (実マウスの位置) へ移す
+     *
+     * <p>
+     * マウスからコントローラーへ切り替えたときにInputSourceArbiterから呼び出される。
+     * GuiScreenと同じ式でGUI座標系に変換し、ボタンのフォーカスは外す
+     *
+     * @param x ディスプレイX座標
+     * @param y ディスプレイY座標 (左下原点)
+     */
+    void warpToDisplay(int x, int y) {
+        Minecraft mc = Minecraft.getMinecraft();
+        ScaledResolution sr = ScaledResolutionCache.get();
+        int screenWidth = sr.getScaledWidth();
+        int screenHeight = sr.getScaledHeight();
+        cursorX = Math.max(0, Math.min(screenWidth - 1, x * screenWidth / mc.displayWidth));
+        cursorY = Math.max(0, Math.min(screenHeight - 1, screenHeight - y * screenHeight / mc.displayHeight - 1));
+        updateDisplayPosition(sr);
+        buttonFocus.clearFocus();
+    }
+
+    /**
+     * カーソル位置をディスプレイ座標系に変換してVirtualCursorManagerに渡す
+     *
+     * <p>
+     * MouseHookは変換済みの値を返すだけにするため、変換はカーソル移動時に一度だけ行う。
+     * Y座標は反転する (ディスプレイ座標系は左下原点)
+     *
+     * @param sr 現在のScaledResolution
+     */
+    private void updateDisplayPosition(ScaledResolution sr) {
+        int scaleFactor = sr.getScaleFactor();
+        displayX = (int) (cursorX * scaleFactor);
+        // GuiScreenは y = height - displayY * height / displayHeight - 1 で戻すため1引いておく
+        displayY = Math.max(0, (int) ((sr.getScaledHeight() - cursorY) * scaleFactor) - 1);
+        VirtualCursorManager.setDisplayPosition(displayX, displayY);
+        displayResolution = sr;
     }
 
     /**
      * ボタン入力を処理する
      *
      * <p>
-     * reflectionでGuiScreenのメソッドを直接呼び出す。
+     * Mouse.next() がフックされていて画面が合成イベントを読める場合はイベントキューに積み、
+     * GuiScreen.handleMouseInput() に通常のマウス操作と同じ経路で処理させる。
+     * それ以外の場合はGuiScreenAccessorでGuiScreenのメソッドを直接呼び出す。
      * 実際のマウスカーソルは一切動かさない。
+     *
+     * <p>
+     * 直接呼び出す場合もGuiScreen.handleMouseInput() と同じく、最後に押したボタンについて
+     * 整数座標が変わったときだけ押下からの経過時間を付けてドラッグを伝える。
+     * 移動してから離した場合でも移動先のスロットに配り終えてから解放するよう、ドラッグを先に処理する
      */
-    private void handleButtons(GuiScreen screen, boolean buttonA, boolean buttonB) {
+    private void handleButtons(GuiScreen screen, boolean buttonA, boolean buttonB, boolean useEvents) {
         int x = (int) cursorX;
         int y = (int) cursorY;
 
-        // A ボタン → 左クリック
-        if (buttonA && !prevButtonA) {
-            // マウスダウン
-            simulateMouseClick(screen, x, y, 0);
-            mouseButtonHeld = true;
-            heldMouseButton = 0;
-        } else if (!buttonA && prevButtonA) {
-            // マウスアップ
-            simulateMouseRelease(screen, x, y, 0);
-            mouseButtonHeld = false;
-            heldMouseButton = -1;
+        // ドラッグ (イベントモードでは移動イベントからhandleMouseInputが処理する)
+        if (!useEvents && dragButton >= 0 && (x != lastDragX || y != lastDragY)) {
+            simulateMouseDrag(screen, x, y, dragButton, Minecraft.getSystemTime() - pressTime);
         }
+        lastDragX = x;
+        lastDragY = y;
+
+        // A ボタン → 左クリック
+        updateMouseButton(screen, x, y, 0, buttonA, prevButtonA, useEvents);
 
         // B ボタン → 右クリック
-        if (buttonB && !prevButtonB) {
-            simulateMouseClick(screen, x, y, 1);
-            mouseButtonHeld = true;
-            heldMouseButton = 1;
-        } else if (!buttonB && prevButtonB) {
-            simulateMouseRelease(screen, x, y, 1);
-            mouseButtonHeld = false;
-            heldMouseButton = -1;
+        updateMouseButton(screen, x, y, 1, buttonB, prevButtonB, useEvents);
+    }
+
+    /**
+     * コントローラーのボタンの押下・解放をマウスボタンの押下・解放として伝える
+     *
+     * @param button     マウスボタン (0=左, 1=右)
+     * @param pressed    コントローラーのボタンが押されているか
+     * @param wasPressed 前フレームで押されていたか
+     */
+    private void updateMouseButton(GuiScreen screen, int x, int y, int button, boolean pressed, boolean wasPressed,
+        boolean useEvents) {
+        if (pressed && !wasPressed) {
+            pressMouse(screen, x, y, button, useEvents);
+            heldButtons |= 1 << button;
+            dragButton = button;
+            pressTime = Minecraft.getSystemTime();
+        } else if (!pressed && wasPressed) {
+            releaseMouse(screen, x, y, button, useEvents);
+            heldButtons &= ~(1 << button);
+            // GuiScreenはいずれかのボタンを離すとドラッグを終える
+            dragButton = -1;
         }
+    }
 
-        // ドラッグ中の処理
-        if (mouseButtonHeld && heldMouseButton >= 0) {
-            simulateMouseDrag(screen, x, y, heldMouseButton);
+    /**
+     * マウスボタンの押下を発生させる
+     */
+    private void pressMouse(GuiScreen screen, int x, int y, int button, boolean useEvents) {
+        if (useEvents) {
+            MouseEventQueue.push(button, true, displayX, displayY, 0, 0, 0);
+        } else {
+            simulateMouseClick(screen, x, y, button);
+        }
+    }
+
+    /**
+     * マウスボタンの解放を発生させる
+     */
+    private void releaseMouse(GuiScreen screen, int x, int y, int button, boolean useEvents) {
+        if (useEvents) {
+            MouseEventQueue.push(button, false, displayX, displayY, 0, 0, 0);
+        } else {
+            simulateMouseRelease(screen, x, y, button);
         }
     }
 
@@ -238,43 +650,23 @@ public class VirtualCursor {
      * マウスクリックをシミュレートする
      */
     private void simulateMouseClick(GuiScreen screen, int x, int y, int button) {
-        if (mouseClickedMethod == null) {
-            ControllerMod.LOG.warn("mouseClickedMethod is null");
-            return;
-        }
-        try {
-            mouseClickedMethod.invoke(screen, x, y, button);
-        } catch (Exception e) {
-            ControllerMod.LOG.debug("Failed to simulate mouse click: {}", e.getMessage());
-        }
+        ((GuiScreenAccessor) screen).controllermod$mouseClicked(x, y, button);
     }
 
     /**
      * マウスリリースをシミュレートする
      */
     private void simulateMouseRelease(GuiScreen screen, int x, int y, int button) {
-        if (mouseReleasedMethod == null) {
-            return;
-        }
-        try {
-            mouseReleasedMethod.invoke(screen, x, y, button);
-        } catch (Exception e) {
-            ControllerMod.LOG.debug("Failed to simulate mouse release: {}", e.getMessage());
-        }
+        ((GuiScreenAccessor) screen).controllermod$mouseMovedOrUp(x, y, button);
     }
 
     /**
      * マウスドラッグをシミュレートする
+     *
+     * @param timeSinceClick 押下からの経過時間 (ミリ秒)
      */
-    private void simulateMouseDrag(GuiScreen screen, int x, int y, int button) {
-        if (mouseClickMoveMethod == null) {
-            return;
-        }
-        try {
-            mouseClickMoveMethod.invoke(screen, x, y, button, 0L);
-        } catch (Exception e) {
-            // ドラッグエラーは頻繁に発生する可能性があるのでログは出さない
-        }
+    private void simulateMouseDrag(GuiScreen screen, int x, int y, int button, long timeSinceClick) {
+        ((GuiScreenAccessor) screen).controllermod$mouseClickMove(x, y, button, timeSinceClick);
     }
 
     /**
@@ -284,7 +676,16 @@ public class VirtualCursor {
      * @return 押されている場合は {@code true}
      */
     public boolean isMouseButtonDown(int button) {
-        return mouseButtonHeld && heldMouseButton == button;
+        return button >= 0 && button < 32 && (heldButtons & 1 << button) != 0;
+    }
+
+    /**
+     * 押されているマウスボタンをビットマスクで返す
+     *
+     * @return ビットマスク (ボタン0 = 1ビット目)
+     */
+    int getButtonMask() {
+        return heldButtons;
     }
 
     /**
@@ -299,59 +700,17 @@ public class VirtualCursor {
             return;
         }
 
-        Minecraft mc = Minecraft.getMinecraft();
-        if (mc.currentScreen == null) {
+        if (Minecraft.getMinecraft().currentScreen == null) {
+            return;
+        }
+
+        // ボタンにフォーカス中はカーソルの代わりに枠を表示する
+        if (buttonFocus.hasFocus()) {
+            buttonFocus.renderHighlight();
             return;
         }
 
-        GL11.glPushMatrix();
-        GL11.glTranslatef(cursorX, cursorY, 300); // z=300 でGUIの上に描画
-
-        // カーソルの色 (白、押下時は黄色)
-        float r = 1.0f;
-        float g = 1.0f;
-        float b = mouseButtonHeld ? 0.0f : 1.0f;
-        float a = 0.9f;
-
-        // カーソルサイズ
-        int size = 8;
-
-        // シンプルな十字カーソルを描画
-        GL11.glDisable(GL11.GL_TEXTURE_2D);
-        GL11.glEnable(GL11.GL_BLEND);
-        OpenGlHelper.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA, 1, 0);
-        GL11.glColor4f(r, g, b, a);
-
-        Tessellator tessellator = Tessellator.instance;
-
-        // 横線
-        tessellator.startDrawingQuads();
-        tessellator.addVertex(-size, -1, 0);
-        tessellator.addVertex(-size, 1, 0);
-        tessellator.addVertex(size, 1, 0);
-        tessellator.addVertex(size, -1, 0);
-        tessellator.draw();
-
-        // 縦線
-        tessellator.startDrawingQuads();
-        tessellator.addVertex(-1, -size, 0);
-        tessellator.addVertex(-1, size, 0);
-        tessellator.addVertex(1, size, 0);
-        tessellator.addVertex(1, -size, 0);
-        tessellator.draw();
-
-        // 中心点 (黒)
-        GL11.glColor4f(0, 0, 0, 1.0f);
-        tessellator.startDrawingQuads();
-        tessellator.addVertex(-2, -2, 0);
-        tessellator.addVertex(-2, 2, 0);
-        tessellator.addVertex(2, 2, 0);
-        tessellator.addVertex(2, -2, 0);
-        tessellator.draw();
-
-        GL11.glEnable(GL11.GL_TEXTURE_2D);
-        GL11.glDisable(GL11.GL_BLEND);
-        GL11.glPopMatrix();
+        renderer.render(cursorX, cursorY, heldButtons != 0);
     }
 
     /**
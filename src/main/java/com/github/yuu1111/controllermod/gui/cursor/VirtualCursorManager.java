@@ -1,12 +1,13 @@
 package com.github.yuu1111.controllermod.gui.cursor;
 
-import net.minecraft.client.Minecraft;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import net.minecraft.client.gui.GuiScreen;
-import net.minecraft.client.gui.ScaledResolution;
 
 import org.lwjgl.input.Mouse;
 
 import com.github.yuu1111.controllermod.ControllerMod;
+import com.github.yuu1111.controllermod.asm.MouseHook;
 
 /**
  * バーチャルカーソルの静的マネージャー
@@ -17,11 +18,17 @@ import com.github.yuu1111.controllermod.ControllerMod;
  * 座標変換やマウス入力のエミュレーションを行う
  *
  * <p>
- * 入力デバイスの自動切り替え機能:
+ * 入力デバイスの自動切り替えは {@link InputSourceArbiter} が入力イベントごとに判定し、
+ * {@link #setControllerInputActive(boolean)} で反映する:
  * <ul>
- * <li>マウスが動いた → マウスモード (バーチャルカーソル非表示)</li>
+ * <li>マウス・キーボード → マウスモード (バーチャルカーソル非表示)</li>
  * <li>コントローラー入力 → コントローラーモード (バーチャルカーソル表示)</li>
  * </ul>
+ *
+ * <p>
+ * 状態の更新はクライアントスレッドのみで行う。
+ * MouseHookなど他スレッドから読まれる値は {@link CursorSnapshot} として
+ * {@link #publishSnapshot()} でまとめて公開する。
  */
 public final class VirtualCursorManager {
 
@@ -34,8 +41,17 @@ public final class VirtualCursorManager {
     /** コントローラー入力がアクティブか (スティック/ボタン使用中) */
     private static boolean controllerInputActive = false;
 
-    /** デバッグログのスロットリング用カウンター */
-    private static int debugCounter = 0;
+    /** バーチャルカーソルのディスプレイX座標 (カーソル移動時に計算済み) */
+    private static int displayX;
+
+    /** バーチャルカーソルのディスプレイY座標 (カーソル移動時に計算済み) */
+    private static int displayY;
+
+    /** Mouse.getDWheel() で未読のホイール回転量 (MouseHookから任意のスレッドで読み出される) */
+    private static final AtomicInteger pendingWheel = new AtomicInteger();
+
+    /** 他スレッドに公開する状態 ({@link CursorSnapshot}) */
+    private static volatile long snapshot = CursorSnapshot.EMPTY;
 
     private VirtualCursorManager() {
         // ユーティリティクラス
@@ -50,6 +66,7 @@ public final class VirtualCursorManager {
         if (instance == null) {
             instance = new VirtualCursor();
             ControllerMod.LOG.info("VirtualCursorManager: Instance created");
+            publishSnapshot();
         }
         return instance;
     }
@@ -64,6 +81,7 @@ public final class VirtualCursorManager {
      */
     public static void setInstance(VirtualCursor cursor) {
         instance = cursor;
+        publishSnapshot();
     }
 
     /**
@@ -93,6 +111,7 @@ public final class VirtualCursorManager {
      */
     public static void setEnabled(boolean value) {
         enabled = value;
+        publishSnapshot();
     }
 
     /**
@@ -121,106 +140,147 @@ public final class VirtualCursorManager {
      * コントローラー入力のアクティブ状態を設定する
      *
      * <p>
-     * VirtualCursorから呼び出される スティック入力やボタン押下時にtrueを設定
+     * InputSourceArbiterから入力元が変わったときに呼び出される。
+     * 切り替えは実マウスのイベント処理の途中でも起こるため、直ちにスナップショットを公開する
      *
      * @param active アクティブにする場合は {@code true}
      */
-    public static void setControllerInputActive(boolean active) {
-        if (active && !controllerInputActive) {
-            // コントローラーモードに切り替え
-            if (debugCounter++ % 60 == 0) {
-                ControllerMod.LOG.info("Input mode: Controller");
-            }
+    static void setControllerInputActive(boolean active) {
+        if (active == controllerInputActive) {
+            return;
         }
         controllerInputActive = active;
+        publishSnapshot();
     }
 
     /**
-     * マウスクリックを検出してモードを切り替える
+     * 現在の状態をスナップショットとして公開する
      *
      * <p>
-     * 毎フレーム呼び出されることを想定
-     * Minecraftウィンドウがフォーカスされている状態で
-     * 実マウスのボタンが押された場合、マウスモードに切り替える
+     * VirtualCursor.update() / updateFrame() の最後に1回呼び出される。
+     * 更新途中の状態が他スレッドから見えることはない
      */
-    public static void checkMouseInput() {
-        if (!enabled || !controllerInputActive) {
-            return;
-        }
-
-        // ウィンドウがフォーカスされていない場合は無視
-        if (!org.lwjgl.opengl.Display.isActive()) {
-            return;
-        }
+    static void publishSnapshot() {
+        int buttonMask = instance != null ? instance.getButtonMask() : 0;
+        snapshot = CursorSnapshot.pack(displayX, displayY, buttonMask, isActive(), isControllerInputActive());
+    }
 
-        // マウスボタンが押されたらマウスモードに切り替え
-        if (Mouse.isButtonDown(0) || Mouse.isButtonDown(1)) {
-            controllerInputActive = false;
-            ControllerMod.LOG.info("Input mode: Mouse (click)");
-        }
+    /**
+     * 公開済みのスナップショットを取得する
+     *
+     * <p>
+     * 任意のスレッドから呼び出せる。値の読み出しは {@link CursorSnapshot} のメソッドで行う
+     *
+     * @return スナップショット
+     */
+    public static long getSnapshot() {
+        return snapshot;
     }
 
     /**
      * 仮想カーソルのディスプレイX座標を取得する
      *
      * <p>
-     * GUI座標系からディスプレイ座標系に変換して返す
+     * VirtualCursorがカーソル移動時に計算し、公開済みの値を返す (任意のスレッドから呼び出し可)
      * Mouse.getX()の置換用
      *
      * @return ディスプレイX座標
      */
     public static int getDisplayX() {
-        if (instance == null) {
-            return 0;
-        }
-
-        Minecraft mc = Minecraft.getMinecraft();
-        ScaledResolution sr = new ScaledResolution(mc, mc.displayWidth, mc.displayHeight);
-        int scaleFactor = sr.getScaleFactor();
-
-        // GUI座標系からディスプレイ座標系に変換
-        return (int) (instance.getCursorX() * scaleFactor);
+        return CursorSnapshot.getDisplayX(snapshot);
     }
 
     /**
      * 仮想カーソルのディスプレイY座標を取得する
      *
      * <p>
-     * GUI座標系からディスプレイ座標系に変換して返す
-     * Y座標は反転する必要がある (ディスプレイ座標系は左下原点)
+     * VirtualCursorがカーソル移動時に計算し、公開済みの値を返す (任意のスレッドから呼び出し可)
+     * ディスプレイ座標系は左下原点
      * Mouse.getY()の置換用
      *
      * @return ディスプレイY座標
      */
     public static int getDisplayY() {
-        if (instance == null) {
-            return 0;
+        return CursorSnapshot.getDisplayY(snapshot);
+    }
+
+    /**
+     * 仮想カーソルのディスプレイ座標を設定する
+     *
+     * <p>
+     * VirtualCursorからカーソル移動時・解像度変更時に呼び出される。
+     * 他スレッドへの公開は {@link #publishSnapshot()} で行う
+     *
+     * @param x ディスプレイX座標
+     * @param y ディスプレイY座標 (左下原点)
+     */
+    static void setDisplayPosition(int x, int y) {
+        displayX = x;
+        displayY = y;
+    }
+
+    /**
+     * ホイールの回転量を加算する
+     *
+     * <p>
+     * VirtualCursor.updateScroll() から呼び出される。
+     * 読み出すのはASMトランスフォーマーで置換された Mouse.getDWheel() のみのため、
+     * トランスフォーマーが無効な場合は加算しない
+     *
+     * @param delta 回転量 (1ノッチ = 120)
+     */
+    static void addWheel(int delta) {
+        if (MouseHook.isTransformerEnabled()) {
+            pendingWheel.addAndGet(delta);
         }
+    }
 
-        Minecraft mc = Minecraft.getMinecraft();
-        ScaledResolution sr = new ScaledResolution(mc, mc.displayWidth, mc.displayHeight);
-        int scaleFactor = sr.getScaleFactor();
-        int scaledHeight = sr.getScaledHeight();
+    /**
+     * 未読のホイール回転量を破棄する
+     *
+     * <p>
+     * GUIを閉じたときや画面が切り替わったときに呼び出し、
+     * 前の画面でのスクロールが別の画面やHUDに漏れないようにする
+     */
+    static void clearWheel() {
+        pendingWheel.set(0);
+    }
 
-        // GUI座標系からディスプレイ座標系に変換 (Y軸反転)
-        float guiY = instance.getCursorY();
-        return (int) ((scaledHeight - guiY) * scaleFactor);
+    /**
+     * 前回の呼び出し以降のホイール回転量を取得してリセットする
+     *
+     * <p>
+     * Mouse.getDWheel() と同じく、読み出すと0に戻る (任意のスレッドから呼び出し可)
+     *
+     * @return 回転量 (1ノッチ = 120)
+     */
+    public static int takeWheel() {
+        return pendingWheel.getAndSet(0);
+    }
+
+    /**
+     * スロットのレイアウトが変わったことを通知する
+     *
+     * <p>
+     * MixinGuiContainerCreativeからクリエイティブタブの切り替え時に呼び出される
+     */
+    public static void onSlotLayoutChanged() {
+        if (instance != null) {
+            instance.onSlotLayoutChanged();
+        }
     }
 
     /**
      * 仮想マウスボタンが押されているかどうかを返す
      *
      * <p>
-     * Mouse.isButtonDown()の置換用
+     * Mouse.isButtonDown()の置換用 (任意のスレッドから呼び出し可)
      *
      * @param button マウスボタン番号 (0=左, 1=右)
      * @return 押されている場合は {@code true}
      */
     public static boolean isMouseButtonDown(int button) {
-        if (instance == null) {
-            return false;
-        }
-        return instance.isMouseButtonDown(button);
+        return CursorSnapshot.isButtonDown(snapshot, button);
     }
 
     /**
@@ -262,7 +322,7 @@ public final class VirtualCursorManager {
         // ここでは何もしない (標準のhandleMouseInputをキャンセルするだけ)
         //
         // 注: ボタン押下やドラッグはVirtualCursor.handleButtons()で
-        // reflectionを使って直接mouseClicked等を呼び出している
+        // 合成イベントとして積むか、GuiScreenAccessorで直接mouseClicked等を呼び出している
     }
 
     // ========================================
@@ -280,8 +340,9 @@ public final class VirtualCursorManager {
      * @return マウスX座標 (ディスプレイ座標系)
      */
     public static int getMouseX() {
-        if (isControllerInputActive()) {
-            return getDisplayX();
+        long state = snapshot;
+        if (CursorSnapshot.isControllerInput(state)) {
+            return CursorSnapshot.getDisplayX(state);
         }
         return Mouse.getX();
     }
@@ -297,8 +358,9 @@ public final class VirtualCursorManager {
      * @return マウスY座標 (ディスプレイ座標系)
      */
     public static int getMouseY() {
-        if (isControllerInputActive()) {
-            return getDisplayY();
+        long state = snapshot;
+        if (CursorSnapshot.isControllerInput(state)) {
+            return CursorSnapshot.getDisplayY(state);
         }
         return Mouse.getY();
     }
@@ -319,9 +381,7 @@ public final class VirtualCursorManager {
             return true;
         }
         // コントローラーのボタン状態
-        if (isActive() && isMouseButtonDown(button)) {
-            return true;
-        }
-        return false;
+        long state = snapshot;
+        return CursorSnapshot.isActive(state) && CursorSnapshot.isButtonDown(state, button);
     }
 }
@@ -97,7 +97,10 @@ public class Keybind {
      * バインドボタンを設定
      */
     public void setButton(int button) {
-        this.currentButton = button;
+        if (currentButton != button) {
+            this.currentButton = button;
+            KeybindRegistry.markChanged();
+        }
     }
 
     /**
@@ -125,7 +128,7 @@ public class Keybind {
      * デフォルトにリセット
      */
     public void reset() {
-        this.currentButton = defaultButton;
+        setButton(defaultButton);
     }
 
     /**
@@ -139,6 +142,6 @@ public class Keybind {
      * バインドを解除
      */
     public void unbind() {
-        this.currentButton = -1;
+        setButton(-1);
     }
 }
@@ -122,6 +122,34 @@ public final class KeybindRegistry {
         BUTTON_B,
         false);
 
+    public static final Keybind GUI_UP = new Keybind(
+        "gui_up",
+        "controllermod.binding.gui_up",
+        CATEGORY_GUI,
+        BUTTON_DPAD_UP,
+        false);
+
+    public static final Keybind GUI_DOWN = new Keybind(
+        "gui_down",
+        "controllermod.binding.gui_down",
+        CATEGORY_GUI,
+        BUTTON_DPAD_DOWN,
+        false);
+
+    public static final Keybind GUI_LEFT = new Keybind(
+        "gui_left",
+        "controllermod.binding.gui_left",
+        CATEGORY_GUI,
+        BUTTON_DPAD_LEFT,
+        false);
+
+    public static final Keybind GUI_RIGHT = new Keybind(
+        "gui_right",
+        "controllermod.binding.gui_right",
+        CATEGORY_GUI,
+        BUTTON_DPAD_RIGHT,
+        false);
+
     // バインド定義 - その他
     public static final Keybind PAUSE = new Keybind(
         "pause",
@@ -143,6 +171,9 @@ public final class KeybindRegistry {
     /** カテゴリ順序 */
     private static final List<String> CATEGORY_ORDER = new ArrayList<>();
 
+    /** バインドの変更回数 (割り当てが変わるたびに増える) */
+    private static int generation = 0;
+
     static {
         // カテゴリ順序を定義
         CATEGORY_ORDER.add(CATEGORY_MOVEMENT);
@@ -165,6 +196,10 @@ public final class KeybindRegistry {
         register(OPEN_CHAT);
         register(GUI_SELECT);
         register(GUI_BACK);
+        register(GUI_UP);
+        register(GUI_DOWN);
+        register(GUI_LEFT);
+        register(GUI_RIGHT);
         register(PAUSE);
         register(PLAYER_LIST);
     }
@@ -180,6 +215,26 @@ public final class KeybindRegistry {
         BINDINGS.put(binding.getId(), binding);
     }
 
+    /**
+     * バインドの割り当てが変わったことを記録する
+     *
+     * <p>
+     * {@link Keybind#setButton(int)} から呼び出される
+     */
+    static void markChanged() {
+        generation++;
+    }
+
+    /**
+     * バインドの変更回数を取得
+     *
+     * <p>
+     * 前回取得した値と異なる場合は、いずれかのバインドの割り当てが変わっている
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+
     /**
      * IDでバインドを取得
      */
@@ -279,6 +334,18 @@ public final class KeybindRegistry {
                 return "D-Left";
             case BUTTON_DPAD_RIGHT:
                 return "D-Right";
+            case BUTTON_MISC1:
+                return "Misc";
+            case BUTTON_PADDLE1:
+                return "P1";
+            case BUTTON_PADDLE2:
+                return "P2";
+            case BUTTON_PADDLE3:
+                return "P3";
+            case BUTTON_PADDLE4:
+                return "P4";
+            case BUTTON_TOUCHPAD:
+                return "Touchpad";
             case TRIGGER_LEFT:
                 return "LT";
             case TRIGGER_RIGHT:
@@ -0,0 +1,19 @@
+package com.github.yuu1111.controllermod.mixins;
+
+import net.minecraft.client.gui.GuiButton;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * GuiButtonのprotectedな高さを読むためのAccessor
+ *
+ * <p>
+ * 幅は {@link GuiButton#getButtonWidth()} で読めるが、高さには公開されたgetterが無い
+ */
+@Mixin(GuiButton.class)
+public interface GuiButtonAccessor {
+
+    @Accessor("height")
+    int controllermod$getHeight();
+}
@@ -0,0 +1,22 @@
+package com.github.yuu1111.controllermod.mixins;
+
+import net.minecraft.client.gui.inventory.GuiContainer;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * GuiContainerのprotectedな配置情報を読むためのAccessor
+ *
+ * <p>
+ * スロットの座標はGUI左上からの相対位置のため、画面上の位置を求めるのに使用する
+ */
+@Mixin(GuiContainer.class)
+public interface GuiContainerAccessor {
+
+    @Accessor("guiLeft")
+    int controllermod$getGuiLeft();
+
+    @Accessor("guiTop")
+    int controllermod$getGuiTop();
+}
@@ -0,0 +1,34 @@
+package com.github.yuu1111.controllermod.mixins;
+
+import java.util.List;
+
+import net.minecraft.client.gui.GuiScreen;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+/**
+ * GuiScreenのprotectedなマウス処理メソッドを呼び出すためのInvoker
+ *
+ * <p>
+ * GuiScreenにこのインターフェースが実装されるため、
+ * {@code ((GuiScreenAccessor) screen).controllermod$mouseClicked(x, y, button)} のように
+ * 通常のメソッド呼び出しとして (boxingや配列の割り当て無しに) 呼び出せる。
+ * ボタンのフォーカス移動のため、ボタンの一覧も読めるようにする
+ */
+@Mixin(GuiScreen.class)
+public interface GuiScreenAccessor {
+
+    @Invoker("mouseClicked")
+    void controllermod$mouseClicked(int mouseX, int mouseY, int button);
+
+    @Invoker("mouseMovedOrUp")
+    void controllermod$mouseMovedOrUp(int mouseX, int mouseY, int button);
+
+    @Invoker("mouseClickMove")
+    void controllermod$mouseClickMove(int mouseX, int mouseY, int button, long timeSinceLastClick);
+
+    @Accessor("buttonList")
+    List<?> controllermod$getButtonList();
+}
@@ -0,0 +1,30 @@
+package com.github.yuu1111.controllermod.mixins;
+
+import net.minecraft.client.settings.KeyBinding;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * KeyBindingのprivateな押下状態・押下回数を読み書きするためのAccessor
+ *
+ * <p>
+ * KeyBinding.setKeyBindState() と KeyBinding.onTick() はキーコードからKeyBindingを引くため、
+ * 呼び出しごとにハッシュを引き、キーが未割り当て・重複している場合は届かない。
+ * コントローラーの入力はKeyBindingに直接書き込む
+ */
+@Mixin(KeyBinding.class)
+public interface KeyBindingAccessor {
+
+    @Accessor("pressed")
+    boolean controllermod$isPressed();
+
+    @Accessor("pressed")
+    void controllermod$setPressed(boolean pressed);
+
+    @Accessor("pressTime")
+    int controllermod$getPressTime();
+
+    @Accessor("pressTime")
+    void controllermod$setPressTime(int pressTime);
+}
@@ -0,0 +1,37 @@
+package com.github.yuu1111.controllermod.mixins;
+
+import net.minecraft.client.renderer.EntityRenderer;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+import com.github.yuu1111.controllermod.asm.MouseHook;
+
+/**
+ * EntityRendererのMixin
+ *
+ * <p>
+ * updateCameraAndRender() はMouse.getX()/getY()からGUIのマウス座標を計算して
+ * GuiScreen.drawScreen() に渡すため、ここでバーチャルカーソルの座標に差し替える。
+ * これによりホバー表示やツールチップがバーチャルカーソルの位置に追従する
+ */
+@Mixin(EntityRenderer.class)
+public abstract class MixinEntityRenderer {
+
+    @Redirect(
+        method = "updateCameraAndRender",
+        at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Mouse;getX()I", remap = false),
+        require = 0)
+    private int controllermod$getMouseX() {
+        return MouseHook.getX();
+    }
+
+    @Redirect(
+        method = "updateCameraAndRender",
+        at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Mouse;getY()I", remap = false),
+        require = 0)
+    private int controllermod$getMouseY() {
+        return MouseHook.getY();
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.yuu1111.controllermod.mixins;
+
+import net.minecraft.client.gui.inventory.GuiContainerCreative;
+
+import net.minecraft.creativetab.CreativeTabs;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import com.github.yuu1111.controllermod.asm.MouseHook;
+import com.github.yuu1111.controllermod.gui.cursor.VirtualCursorManager;
+
+/**
+ * GuiContainerCreativeのMixin
+ *
+ * <p>
+ * GuiContainer系の画面のうち、クリエイティブインベントリは drawScreen() で
+ * Mouse.isButtonDown(0) を直接読んでスクロールバーをドラッグする。
+ * バーチャルカーソルのボタンでもドラッグできるように差し替える。
+ * また handleMouseInput() のホイールによるスクロールを右スティックに対応させる。
+ * タブの切り替えはスロット数を変えずにスロットを入れ替えるため、バーチャルカーソルのスロットのインデックスを破棄させる
+ */
+@Mixin(GuiContainerCreative.class)
+public abstract class MixinGuiContainerCreative {
+
+    @Redirect(
+        method = "drawScreen",
+        at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Mouse;isButtonDown(I)Z", remap = false),
+        require = 0)
+    private boolean controllermod$isButtonDown(int button) {
+        return MouseHook.isButtonDown(button);
+    }
+
+    @Redirect(
+        method = "handleMouseInput",
+        at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Mouse;getEventDWheel()I", remap = false),
+        require = 0)
+    private int controllermod$getEventDWheel() {
+        return MouseHook.getEventDWheel();
+    }
+
+    @Inject(method = "setCurrentCreativeTab", at = @At("TAIL"), require = 0)
+    private void controllermod$onSetCurrentCreativeTab(CreativeTabs tab, CallbackInfo ci) {
+        VirtualCursorManager.onSlotLayoutChanged();
+    }
+}
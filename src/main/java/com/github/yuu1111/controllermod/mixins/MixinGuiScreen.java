@@ -0,0 +1,80 @@
+package com.github.yuu1111.controllermod.mixins;
+
+import net.minecraft.client.gui.GuiScreen;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+import org.lwjgl.input.Keyboard;
+
+import com.github.yuu1111.controllermod.asm.MouseHook;
+import com.github.yuu1111.controllermod.gui.cursor.InputSourceArbiter;
+
+/**
+ * GuiScreenのMixin
+ *
+ * <p>
+ * handleInput() のイベントループの Mouse.next() と、handleMouseInput() が読む
+ * Mouse.getEventX()/getEventY()/getEventButton()/getEventButtonState() をMouseHookに差し替える。
+ * これによりバーチャルカーソルの合成イベントが実マウスのイベントと同じ経路で処理される。
+ * handleMouseInput() を上書きして Mouse.getEvent*() を直接読む画面には合成イベントを渡さない
+ * ({@link com.github.yuu1111.controllermod.gui.cursor.MouseInputCoverage})。
+ * コントローラーモード中に届いた実マウスのイベントもバーチャルカーソルの位置で処理させる。
+ * キーボードのイベントは入力元の判定 ({@link InputSourceArbiter}) に渡す
+ */
+@Mixin(GuiScreen.class)
+public abstract class MixinGuiScreen {
+
+    @Redirect(
+        method = "handleInput",
+        at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Mouse;next()Z", remap = false),
+        require = 0)
+    private boolean controllermod$next() {
+        return MouseHook.next((GuiScreen) (Object) this);
+    }
+
+    @Redirect(
+        method = "handleInput",
+        at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Keyboard;next()Z", remap = false),
+        require = 0)
+    private boolean controllermod$keyboardNext() {
+        if (!Keyboard.next()) {
+            return false;
+        }
+        InputSourceArbiter.onKeyboardEvent(Keyboard.getEventKeyState());
+        return true;
+    }
+
+    @Redirect(
+        method = "handleMouseInput",
+        at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Mouse;getEventX()I", remap = false),
+        require = 0)
+    private int controllermod$getEventX() {
+        return MouseHook.getEventX();
+    }
+
+    @Redirect(
+        method = "handleMouseInput",
+        at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Mouse;getEventY()I", remap = false),
+        require = 0)
+    private int controllermod$getEventY() {
+        return MouseHook.getEventY();
+    }
+
+    @Redirect(
+        method = "handleMouseInput",
+        at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Mouse;getEventButton()I", remap = false),
+        require = 0)
+    private int controllermod$getEventButton() {
+        return MouseHook.getEventButton();
+    }
+
+    @Redirect(
+        method = "handleMouseInput",
+        at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Mouse;getEventButtonState()Z", remap = false),
+        require = 0)
+    private boolean controllermod$getEventButtonState() {
+        return MouseHook.getEventButtonState();
+    }
+}
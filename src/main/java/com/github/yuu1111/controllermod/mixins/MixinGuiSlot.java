@@ -0,0 +1,46 @@
+package com.github.yuu1111.controllermod.mixins;
+
+import net.minecraft.client.gui.GuiSlot;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+import com.github.yuu1111.controllermod.asm.MouseHook;
+
+/**
+ * GuiSlotのMixin
+ *
+ * <p>
+ * ワールド選択画面などのリストは drawScreen() で Mouse.isButtonDown(0) を直接読んで
+ * スクロールバーのドラッグと項目の選択を行うため、バーチャルカーソルのボタンに対応させる。
+ * また drawScreen() 内の独自のイベントループ (Mouse.next()) でも合成イベントを読ませ、
+ * ホイールによるスクロール (Mouse.getEventDWheel()) を右スティックに対応させる
+ */
+@Mixin(GuiSlot.class)
+public abstract class MixinGuiSlot {
+
+    @Redirect(
+        method = "drawScreen",
+        at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Mouse;isButtonDown(I)Z", remap = false),
+        require = 0)
+    private boolean controllermod$isButtonDown(int button) {
+        return MouseHook.isButtonDown(button);
+    }
+
+    @Redirect(
+        method = "drawScreen",
+        at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Mouse;next()Z", remap = false),
+        require = 0)
+    private boolean controllermod$next() {
+        return MouseHook.next();
+    }
+
+    @Redirect(
+        method = "drawScreen",
+        at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Mouse;getEventDWheel()I", remap = false),
+        require = 0)
+    private int controllermod$getEventDWheel() {
+        return MouseHook.getEventDWheel();
+    }
+}
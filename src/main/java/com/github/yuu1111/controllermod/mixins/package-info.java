@@ -2,8 +2,13 @@
  * Mixinパッケージ
  *
  * <p>
- * 将来のMixin実装のためのプレースホルダー。
- * 現在は空だが、ビルドシステムの要件を満たすために存在する。
+ * バニラのGUI・描画処理が {@code org.lwjgl.input.Mouse} を直接参照している箇所を
+ * {@link com.github.yuu1111.controllermod.asm.MouseHook} に差し替え、バーチャルカーソルを反映する。
+ * LWJGLのメソッドは難読化されないため、{@code @At} には {@code remap = false} を指定する。
+ *
+ * <p>
+ * Coremodのトランスフォーマーを有効にした場合は同じ呼び出しが先に置換されていることがあるため、
+ * 各 {@code @Redirect} は {@code require = 0} としている。
  */
 @javax.annotation.ParametersAreNonnullByDefault
 package com.github.yuu1111.controllermod.mixins;
@@ -7,6 +7,7 @@ import com.github.yuu1111.controllermod.ControllerMod;
 import com.github.yuu1111.controllermod.config.BindingConfig;
 import com.github.yuu1111.controllermod.config.ControllerConfig;
 import com.github.yuu1111.controllermod.controller.ControllerHandler;
+import com.github.yuu1111.controllermod.gui.cursor.CursorMemory;
 import com.github.yuu1111.controllermod.gui.cursor.VirtualCursor;
 import com.gtnewhorizon.gtnhlib.config.ConfigException;
 import com.gtnewhorizon.gtnhlib.config.ConfigurationManager;
@@ -36,6 +37,9 @@ public class ClientProxy extends CommonProxy {
 
         // バインド設定の読み込み
         BindingConfig.init(event.getModConfigurationDirectory());
+
+        // 画面ごとのカーソル位置の記憶の読み込み
+        CursorMemory.init(event.getModConfigurationDirectory());
     }
 
     @Override
@@ -67,6 +71,40 @@ public class ClientProxy extends CommonProxy {
         }
     }
 
+    /**
+     * 描画の前に右スティックの視点操作とバーチャルカーソルの移動・クリック・ホイールを処理する
+     *
+     * <p>
+     * 描画フレームごとに経過時間で積算することで、tickレートに依存せず滑らかに動かす
+     *
+     * @param event 描画tickイベント
+     */
+    @SubscribeEvent
+    public void onRenderTick(TickEvent.RenderTickEvent event) {
+        if (event.phase == TickEvent.Phase.START && controllerHandler != null) {
+            controllerHandler.updateRenderFrame();
+        }
+    }
+
+    /**
+     * GUIの初期化後にコンテナ画面のスロットをバーチャルカーソルに登録する
+     *
+     * <p>
+     * GUIを開いたときとウィンドウサイズが変わったときに呼び出される
+     *
+     * @param event GUI初期化イベント
+     */
+    @SubscribeEvent
+    public void onInitGuiPost(GuiScreenEvent.InitGuiEvent.Post event) {
+        if (controllerHandler != null && controllerHandler.getInputHandler() != null) {
+            VirtualCursor cursor = controllerHandler.getInputHandler()
+                .getVirtualCursor();
+            if (cursor != null) {
+                cursor.onGuiInit(event.gui);
+            }
+        }
+    }
+
     /**
      * GUI描画後にバーチャルカーソルを描画する
      *